@@ -4,20 +4,29 @@ import model.AdminModel;
 import model.Employee;
 import view.homepage;
 
-import javax.swing.JOptionPane;
+import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 public class AddEmployeeController {
 
+    // Rejected rows listed in the import summary; the rest are counted
+    private static final int IMPORT_ERRORS_SHOWN = 10;
+
     private final homepage view;
     private final AdminModel model;
+    private final EmployeeImporter importer;
 
     public AddEmployeeController(homepage view, AdminModel model) {
         this.view = view;
         this.model = model;
+        this.importer = new EmployeeImporter(model);
 
-        // connect button in view to controller logic
+        // connect buttons in view to controller logic
         this.view.addEmployeeRegisterListener(e -> handleAddEmployee());
+        this.view.addEmployeeImportListener(e -> handleImport());
     }
 
     private void handleAddEmployee() {
@@ -34,36 +43,10 @@ public class AddEmployeeController {
         String password     = view.getEmpPassword();
         String employeeType = view.getEmpEmployeeType();   // <-- from combo box or similar
 
-        // Basic validation
-        if (fullName.isEmpty() || username.isEmpty() ||
-            email.isEmpty() || phone.isEmpty() ||
-            department.isEmpty() || address.isEmpty() ||
-            password.isEmpty() || employeeType.isEmpty()) {
-
-            view.showEmpError("All fields are required, including password and employee type.");
-            return;
-        }
-
-        // BASIC: email format
-        if (!isBasicEmail(email)) {
-            view.showEmpError("Please enter a valid email address.");
-            return;
-        }
-
-        // BASIC: phone digits only + 10 digits
-        String phoneDigits = phone.trim();
-        if (!phoneDigits.matches("\\d+")) {
-            view.showEmpError("Phone number must contain digits only.");
-            return;
-        }
-        if (phoneDigits.length() != 10) {
-            view.showEmpError("Phone number must be exactly 10 digits.");
-            return;
-        }
-
-        // BASIC: password length
-        if (password.length() < 6) {
-            view.showEmpError("Password must be at least 6 characters.");
+        String error = EmployeeValidator.validate(fullName, username, email, phone,
+                department, address, password, employeeType);
+        if (error != null) {
+            view.showEmpError(error);
             return;
         }
 
@@ -89,32 +72,75 @@ public class AddEmployeeController {
                 role
         );
 
-        try {
-            model.saveEmployee(emp);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-            view.showEmpError("Error saving employee. Please try again.");
-            return;
-        }
-
-        JOptionPane.showMessageDialog(
-                null,
-                "Employee registered successfully!",
-                "Success",
-                JOptionPane.INFORMATION_MESSAGE
-        );
+        // Queue the write; confirm on the EDT once the record is durable
+        model.saveEmployeeAsync(emp).whenComplete((ok, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex != null) {
+                ex.printStackTrace();
+                view.showEmpError("Error saving employee. Please try again.");
+                return;
+            }
+
+            JOptionPane.showMessageDialog(
+                    null,
+                    "Employee registered successfully!",
+                    "Success",
+                    JOptionPane.INFORMATION_MESSAGE
+            );
+        }));
 
         // Optional: clear the form after success (implement this in view if you want)
         // view.clearEmployeeForm();
     }
 
-    // BASIC email validator: must contain '@' and a '.' after '@'
-    private boolean isBasicEmail(String email) {
-        if (email == null) return false;
-        String e = email.trim();
-        int at = e.indexOf('@');
-        if (at <= 0 || at != e.lastIndexOf('@')) return false;
-        int dot = e.indexOf('.', at + 1);
-        return dot > at + 1 && dot < e.length() - 1;
+    private void handleImport() {
+        File file = view.chooseImportFile();
+        if (file == null) return;
+
+        view.clearEmpError();
+        view.setImportRunning(true);
+
+        // Validation and password hashing take a while on a large file: keep them off the EDT
+        Thread worker = new Thread(() -> {
+            EmployeeImporter.ImportResult result = null;
+            try {
+                result = importer.importFile(file);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+
+            EmployeeImporter.ImportResult done = result;
+            SwingUtilities.invokeLater(() -> {
+                view.setImportRunning(false);
+                if (done == null) {
+                    view.showEmpError("Could not read " + file.getName() + ".");
+                    return;
+                }
+                view.refreshTotalEmployees();
+                JOptionPane.showMessageDialog(
+                        null,
+                        importSummary(done),
+                        "Import finished",
+                        done.getErrors().isEmpty() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE
+                );
+            });
+        }, "employee-import");
+        worker.start();
+    }
+
+    private static String importSummary(EmployeeImporter.ImportResult result) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(result.getImported()).append(" employees imported");
+        if (result.getRejected() > 0) sb.append(", ").append(result.getRejected()).append(" rows rejected");
+        if (result.getNotSaved() > 0) sb.append(", ").append(result.getNotSaved()).append(" rows may not be saved");
+        sb.append('.');
+
+        List<String> errors = result.getErrors();
+        for (int i = 0; i < Math.min(errors.size(), IMPORT_ERRORS_SHOWN); i++) {
+            sb.append('\n').append(errors.get(i));
+        }
+        if (errors.size() > IMPORT_ERRORS_SHOWN) {
+            sb.append("\n...and ").append(errors.size() - IMPORT_ERRORS_SHOWN).append(" more.");
+        }
+        return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -1,166 +1,324 @@
 package controller;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import model.AttendanceRecord;
-import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.LinkedList;
+import model.AttendanceJournal;
+import model.AttendanceStore;
+import model.AttendanceUserIds;
+import model.PresentCounter;
+import model.RecentActivityRing;
+import model.WorkHours;
+import model.WorkHoursEngine;
 
 public class AttendanceController {
 
-    // Temporary (in-memory) attendance storage (shared across all windows)
-    private static final List<AttendanceRecord> attendanceRecords = new ArrayList<>();
+    // Username <-> int id dictionary (./attendance.users), shared by the store and the journal
+    private static final AttendanceUserIds userIds = openUserIds();
+
+    // In-memory attendance storage (shared across all windows).
+    // Sharded by employee: punches for different employees don't wait on each other.
+    private static final AttendanceStore store = new AttendanceStore(userIds);
   
-    // MANUAL STACK (LIFO)
-    private static final int MAX_STACK_SIZE = 2000;
-    private static final AttendanceRecord[] attendanceStack = new AttendanceRecord[MAX_STACK_SIZE];
-    private static int top = -1;
+    // Recent activity (newest punch-ins) for the dashboard table. Bounded: once
+    // full the oldest entry is dropped from here; it stays in the store's history.
+    private static final RecentActivityRing<AttendanceRecord> recent =
+            new RecentActivityRing<>(Math.max(1, Integer.getInteger("ems.attendance.recent.capacity", 5000)));
+
+    // Hours / overtime / late arrivals; caches closed periods, evicted by punches dated in them
+    private static final WorkHoursEngine workHours = newWorkHoursEngine();
+
+    private static WorkHoursEngine newWorkHoursEngine() {
+        WorkHoursEngine engine = new WorkHoursEngine(store, WorkHoursEngine.Rules.fromSystemProperties());
+        store.addListener(engine);
+        return engine;
+    }
+
+    // Employees punched in today and not out yet (rolls over at midnight)
+    private static final PresentCounter presentToday = new PresentCounter();
 
     // -------------------------
     // Punch In / Punch Out
     // -------------------------
 
+    // Durable copy of every punch; state is rebuilt from it on startup (null if it could not be opened)
+    private static final AttendanceJournal journal = openJournal();
+
+    private static AttendanceUserIds openUserIds() {
+        try {
+            return AttendanceUserIds.open(new File("./attendance.users"));
+        } catch (IOException ex) {
+            ex.printStackTrace();   // ids only in memory; no journal either
+            return new AttendanceUserIds();
+        }
+    }
+
+    private static AttendanceJournal openJournal() {
+        if (!userIds.isPersistent()) return null;
+        try {
+            AttendanceJournal j = AttendanceJournal.fromSystemProperties(userIds);
+            j.recover(new AttendanceJournal.Replay() {
+                @Override
+                public void punchIn(String username, LocalDate date, LocalTime time) {
+                    applyPunchIn(username, date, time);
+                }
+
+                @Override
+                public void punchOut(String username, LocalDate date, LocalTime time, int flags) {
+                    applyPunchOut(username, date, time, flags);
+                }
+            }, store);
+
+            store.addListener(j);   // from here on every accepted punch is journaled
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    j.close();      // push out whatever the fsync interval is still holding
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            }, "attendance-journal-close"));
+            return j;
+        } catch (IOException ex) {
+            ex.printStackTrace();   // keep working in memory only
+            return null;
+        }
+    }
+
     // No double punch-in per user per day
-    public static synchronized boolean punchIn(String username, LocalDate date, LocalTime punchInTime) {
+    public static boolean punchIn(String username, LocalDate date, LocalTime punchInTime) {
         if (username == null || username.isBlank() || date == null || punchInTime == null) return false;
 
-        for (AttendanceRecord r : attendanceRecords) {
-            if (username.equals(r.getUsername()) && date.equals(r.getDate())) {
-                return false; // already has record for today
-            }
-        }
+        return applyPunchIn(username, date, punchInTime); // false: already has record for today
+    }
+
+    public static boolean punchOut(String username, LocalDate date, LocalTime punchOutTime) {
+        if (username == null || username.isBlank() || date == null || punchOutTime == null) return false;
 
-        AttendanceRecord rec = new AttendanceRecord(username, date, punchInTime);
-        attendanceRecords.add(rec);   // history
-        pushAttendance(rec);          // LIFO stack (manual)
+        return applyPunchOut(username, date, punchOutTime, 0); // false: no punch-in for that day, or already out
+    }
+
+    private static boolean applyPunchIn(String username, LocalDate date, LocalTime time) {
+        AttendanceRecord rec = store.punchIn(username, date, time);
+        if (rec == null) return false;
+
+        recent.push(rec);             // recent activity (newest first)
+        presentToday.punchedIn(date);
         return true;
     }
 
-    public static synchronized boolean punchOut(String username, LocalDate date, LocalTime punchOutTime) {
-        if (username == null || username.isBlank() || date == null || punchOutTime == null) return false;
+    private static boolean applyPunchOut(String username, LocalDate date, LocalTime time, int flags) {
+        if (store.punchOut(username, date, time, flags) == null) return false;
 
-        for (int i = attendanceRecords.size() - 1; i >= 0; i--) {
-            AttendanceRecord r = attendanceRecords.get(i);
-            if (username.equals(r.getUsername()) && date.equals(r.getDate())) {
-                if (r.getPunchOut() != null) return false; // already punched out
-                r.setPunchOut(punchOutTime);
-                return true;
-            }
-        }
-        return false; // no record found (no punch-in)
+        presentToday.punchedOut(date);
+        return true;
     }
 
-    public static synchronized List<AttendanceRecord> getAllAttendanceRecords() {
-        return new ArrayList<>(attendanceRecords);
+    // Full history, oldest first; a snapshot that does not block punches
+    public static List<AttendanceRecord> getAllAttendanceRecords() {
+        return store.snapshot();
     }
 
     // -------------------------
-    // Manual Stack Helpers
+    // Auto punch-out
+    // Records still open at the cutoff (default 23:00, -Dems.attendance.autoPunchOut=HH:mm)
+    // are closed at the cutoff and flagged for review. Checked every
+    // -Dems.attendance.sweepMinutes (default 15) from the store's open rows only.
     // -------------------------
 
-    private static boolean isStackEmpty() {
-        return top == -1;
+    private static final ScheduledExecutorService sweeper = startSweeper();
+
+    private static ScheduledExecutorService startSweeper() {
+        ScheduledExecutorService ses = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "attendance-auto-punch-out");
+            t.setDaemon(true);
+            return t;
+        });
+        long every = Math.max(1, Integer.getInteger("ems.attendance.sweepMinutes", 15));
+        ses.scheduleWithFixedDelay(AttendanceController::autoPunchOut, 0, every, TimeUnit.MINUTES);
+        return ses;
     }
 
-    private static boolean isStackFull() {
-        return top == MAX_STACK_SIZE - 1;
+    private static LocalTime autoPunchOutCutoff() {
+        try {
+            return LocalTime.parse(System.getProperty("ems.attendance.autoPunchOut", "23:00"));
+        } catch (DateTimeParseException ex) {
+            ex.printStackTrace();
+            return LocalTime.of(23, 0);
+        }
     }
 
-    // PUSH - add record to top of stack
-    private static boolean pushAttendance(AttendanceRecord record) {
-        if (record == null) return false;
-        if (isStackFull()) return false;
-        attendanceStack[++top] = record;
-        return true;
+    // Close stale open records now; returns how many were closed
+    public static int autoPunchOut() {
+        try {
+            LocalDate today = LocalDate.now();
+            List<AttendanceRecord> closed = store.autoClose(today, LocalTime.now(), autoPunchOutCutoff());
+            for (AttendanceRecord r : closed) {
+                presentToday.punchedOut(r.getDate());   // only today's count
+            }
+            return closed.size();
+        } catch (RuntimeException ex) {
+            ex.printStackTrace();   // keep the schedule alive
+            return 0;
+        }
     }
 
-    // POP - remove record from top of stack
-    private static AttendanceRecord popAttendance() {
-        if (isStackEmpty()) return null;
-        AttendanceRecord r = attendanceStack[top];
-        attendanceStack[top] = null;
-        top--;
-        return r;
+    // Records closed by the auto punch-out, oldest first
+    public static List<AttendanceRecord> getRecordsFlaggedForReview() {
+        return store.findFlagged(AttendanceStore.FLAG_AUTO_CLOSED);
     }
 
-    // PEEK - view record at top (no remove)
-    private static AttendanceRecord peekAttendance() {
-        if (isStackEmpty()) return null;
-        return attendanceStack[top];
+    // -------------------------
+    // Recent activity
+    // -------------------------
+
+    // For table display: newest first
+    public static List<AttendanceRecord> getAttendanceStackAsList() {
+        return recent.toListNewestFirst();
     }
 
-    private static int getStackSizeInternal() {
-        return top + 1;
+    public static AttendanceRecord peekLastPunchIn() {
+        return recent.peekNewest();
     }
 
-    // For table display: newest first (top -> bottom)
-    public static synchronized List<AttendanceRecord> getAttendanceStackAsList() {
-        List<AttendanceRecord> list = new ArrayList<>();
-        for (int i = top; i >= 0; i--) {
-            if (attendanceStack[i] != null) list.add(attendanceStack[i]);
-        }
-        return list;
+    public static int getAttendanceStackSize() {
+        return recent.size();
     }
 
-    // Optional demo helpers
-    public static synchronized AttendanceRecord peekLastPunchIn() {
-        return peekAttendance();
+    // Count how many employees are currently present today
+    // Present = punched in today AND not punched out yet
+    public static int countPresentToday() {
+        return presentToday.get();
+    }
+    
+    // -------------------------
+    // Work hours
+    // -------------------------
+
+    // Every employee's totals for the day / week / month containing 'day'
+    public static List<WorkHours> getWorkHours(WorkHoursEngine.Period period, LocalDate day) {
+        if (period == null || day == null) return new ArrayList<>();
+        return workHours.compute(period, day);
     }
 
-    public static synchronized AttendanceRecord popLastPunchIn() {
-        return popAttendance();
+    // Totals per period from 'from' to 'to' (e.g. a year of months for payroll)
+    public static Map<LocalDate, List<WorkHours>> getWorkHoursReport(WorkHoursEngine.Period period,
+                                                                     LocalDate from, LocalDate to) {
+        if (period == null || from == null || to == null) return new TreeMap<>();
+        return workHours.report(period, from, to);
     }
 
-    public static synchronized int getAttendanceStackSize() {
-        return getStackSizeInternal();
+    // The same report as one list, period by period, then by username
+    public static List<WorkHours> getWorkHoursRows(WorkHoursEngine.Period period, LocalDate from, LocalDate to) {
+        List<WorkHours> rows = new ArrayList<>();
+        for (List<WorkHours> p : getWorkHoursReport(period, from, to).values()) rows.addAll(p);
+        return rows;
     }
-    // Count how many employees are currently present today
-// Present = punched in today AND not punched out yet
-public static synchronized int countPresentToday() {
-    LocalDate today = LocalDate.now();
-    HashSet<String> workingUsers = new HashSet<>();
-
-    List<AttendanceRecord> records = getAttendanceStackAsList();
-    for (AttendanceRecord r : records) {
-        if (r == null) continue;
-        if (r.getDate() == null) continue;
-
-        if (!today.equals(r.getDate())) continue;
-
-        if (r.getPunchIn() != null && r.getPunchOut() == null) {
-            String u = r.getUsername();
-            if (u != null && !u.isBlank()) {
-                workingUsers.add(u.trim().toLowerCase());
+
+    // Write the report as CSV (one line per employee per period), e.g. for payroll
+    public static void exportWorkHoursCsv(WorkHoursEngine.Period period, LocalDate from, LocalDate to,
+                                          File file) throws IOException {
+        try (PrintWriter w = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            w.println("username,periodStart,periodEnd,workedHours,overtimeHours,daysWorked,lateArrivals,openDays,autoClosedDays");
+            for (WorkHours h : getWorkHoursRows(period, from, to)) {
+                w.println(csv(h.getUsername()) + "," + h.getPeriodStart() + "," + h.getPeriodEnd() + ","
+                        + String.format(java.util.Locale.ROOT, "%.2f,%.2f", h.getWorkedHours(), h.getOvertimeHours()) + ","
+                        + h.getDaysWorked() + "," + h.getLateArrivals() + ","
+                        + h.getOpenDays() + "," + h.getAutoClosedDays());
             }
+            if (w.checkError()) throw new IOException("Could not write " + file);
         }
     }
-    return workingUsers.size();
-}
-    
-    public static List<AttendanceRecord> linearSearchAttendance(List<AttendanceRecord> list, String key) {
-    List<AttendanceRecord> result = new LinkedList<>();
 
-    if (list == null || key == null || key.isBlank()) {
-        return result;
+    private static String csv(String s) {
+        if (s == null) return "";
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
     }
 
-    String target = key.trim().toLowerCase();
+    // -------------------------
+    // Attendance search (served from the store's indexes, not a scan)
+    // -------------------------
+
+    // Newest first, like the dashboard table
+    private static final Comparator<AttendanceRecord> NEWEST_FIRST =
+            Comparator.comparing(AttendanceRecord::getDate)
+                      .thenComparing(AttendanceRecord::getPunchIn)
+                      .reversed();
+
+    // One employee between two dates (inclusive; null = no limit)
+    public static List<AttendanceRecord> findAttendance(String username, LocalDate from, LocalDate to) {
+        if (username == null || username.isBlank()) return new ArrayList<>();
+        return store.findByUser(username, from, to);
+    }
+
+    // Everyone between two dates (inclusive)
+    public static List<AttendanceRecord> findAttendanceBetween(LocalDate from, LocalDate to) {
+        if (from == null || to == null) return new ArrayList<>();
+        return store.findByDate(from, to);
+    }
+
+    // Everyone on one date
+    public static List<AttendanceRecord> findAttendanceOn(LocalDate date) {
+        return findAttendanceBetween(date, date);
+    }
 
-    for (AttendanceRecord r : list) {
-        if (r == null) continue;
+    /**
+     * Search box on the attendance panel: records whose username contains the
+     * key (ignoring case) or whose date (yyyy-MM-dd) contains it, so "2025-03",
+     * "03-14" and "-03-" all work. A whole date, month or year is a range of the
+     * day index; other date fragments test each distinct day once; usernames are
+     * found through the trigram index of AttendanceUserIds.
+     * Results newest first.
+     */
+    public static List<AttendanceRecord> searchAttendance(String key) {
+        List<AttendanceRecord> result = new ArrayList<>();
+        if (key == null || key.isBlank()) return result;
+        String k = key.trim();
 
-        String u = (r.getUsername() == null) ? "" : r.getUsername().trim().toLowerCase();
-        String d = (r.getDate() == null) ? "" : r.getDate().toString().trim().toLowerCase();
+        result.addAll(findAttendanceByDateText(k));
 
-        // match either username or date
-        if (u.contains(target) || d.contains(target)) {
-            result.add(r);
+        // Users whose name matches; their rows on matching dates are already in
+        for (String name : store.getUserIds().namesContaining(k)) {
+            for (AttendanceRecord r : store.findByUser(name, null, null)) {
+                if (!r.getDate().toString().contains(k)) result.add(r);
+            }
         }
+
+        result.sort(NEWEST_FIRST);
+        return result;
     }
 
-    return result;
-}
+    // Everyone's records on dates whose yyyy-MM-dd text contains 'k'
+    private static List<AttendanceRecord> findAttendanceByDateText(String k) {
+        if (!k.matches("[0-9-]+")) return new ArrayList<>();   // no ISO date holds anything else
+        try {
+            if (k.matches("\\d{4}-\\d{2}-\\d{2}")) {
+                return findAttendanceOn(LocalDate.parse(k));
+            } else if (k.matches("\\d{4}-\\d{2}")) {
+                YearMonth m = YearMonth.parse(k);
+                return findAttendanceBetween(m.atDay(1), m.atEndOfMonth());
+            } else if (k.matches("\\d{4}")) {
+                Year y = Year.parse(k);
+                return findAttendanceBetween(y.atDay(1), y.atMonth(12).atEndOfMonth());
+            }
+        } catch (DateTimeParseException ex) {
+            return new ArrayList<>();   // looks like a date but isn't one (e.g. 2025-13-40)
+        }
+        return store.findByDateText(k);
+    }
 }
@@ -0,0 +1,308 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import model.AdminModel;
+import model.Employee;
+import model.GroupCommitWriter;
+import model.JsonLineParser;
+import model.PasswordHasher;
+import model.UserDirectory;
+
+/**
+ * Bulk employee onboarding from a CSV or JSON-lines file.
+ *
+ * The file is streamed in chunks. Each chunk is validated in parallel
+ * (same rules as the Add Employee form), duplicate usernames are rejected
+ * against an in-memory set (existing users + rows already accepted), only then
+ * are the remaining passwords hashed (in parallel), and the valid rows of a
+ * chunk are written with one batched append. A chunk whose write fails is
+ * reported by line range; the other chunks are still saved.
+ *
+ * CSV: first line may be a header naming the columns
+ * (fullName, username, email, phone, department, address, employeeType, password);
+ * without a header the columns are taken in that order. Quoted fields ("a, b",
+ * "say ""hi""") are supported; a field may not span lines. Passwords are taken
+ * exactly as written; other fields are trimmed.
+ *
+ * JSON lines: one object per line with the same keys as users.txt.
+ */
+public class EmployeeImporter {
+
+    private static final int CHUNK_SIZE = 5000;
+
+    private static final String[] COLUMNS = {
+        "fullName", "username", "email", "phone", "department", "address", "employeeType", "password"
+    };
+    private static final int PASSWORD = 7;   // index of "password" in COLUMNS
+
+    /**
+     * Outcome of one import run.
+     */
+    public static class ImportResult {
+        private int imported = 0;
+        private int rejected = 0;
+        private int notSaved = 0;
+        private final List<String> errors = new ArrayList<>();
+
+        /**
+         * Rows that are stored.
+         */
+        public int getImported() {
+            return imported;
+        }
+
+        /**
+         * Rows that failed validation or had a username already in use.
+         */
+        public int getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Valid rows whose chunk write failed. Storage that appends record by
+         * record may have kept some of them; they read back like any other user.
+         */
+        public int getNotSaved() {
+            return notSaved;
+        }
+
+        /**
+         * One message per rejected row, e.g. "Line 12: Phone number must be exactly 10 digits.",
+         * and one per chunk that could not be written, e.g.
+         * "Lines 5001-10000: write failed, 4998 rows may not be saved (No space left on device)".
+         */
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+    }
+
+    // The batched append of one chunk's valid rows
+    private static class ChunkWrite {
+        final int firstLine;
+        final int lastLine;
+        final int rows;
+        final CompletableFuture<Void> done;
+
+        ChunkWrite(int firstLine, int lastLine, int rows, CompletableFuture<Void> done) {
+            this.firstLine = firstLine;
+            this.lastLine = lastLine;
+            this.rows = rows;
+            this.done = done;
+        }
+    }
+
+    // One input line and what became of it
+    private static class Row {
+        final int lineNo;
+        final String line;
+        String[] values;   // in COLUMNS order
+        String error;
+
+        Row(int lineNo, String line) {
+            this.lineNo = lineNo;
+            this.line = line;
+        }
+    }
+
+    private final AdminModel model;
+
+    public EmployeeImporter(AdminModel model) {
+        this.model = model;
+    }
+
+    public ImportResult importFile(File file) throws IOException {
+        ImportResult result = new ImportResult();
+        Set<String> taken = UserDirectory.getInstance().usernameKeys();
+
+        List<ChunkWrite> writes = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            LineSource source = null;
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+
+            String line;
+            int lineNo = 0;
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+
+                if (source == null) {
+                    source = detect(file, line);
+                    if (source.isHeader(line)) continue;
+                }
+
+                chunk.add(new Row(lineNo, line));
+                if (chunk.size() == CHUNK_SIZE) {
+                    writes.add(processChunk(chunk, source, taken, result));
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writes.add(processChunk(chunk, source, taken, result));
+            }
+        }
+
+        // A failed chunk doesn't undo the others: count what was stored, list what wasn't
+        for (ChunkWrite w : writes) {
+            try {
+                GroupCommitWriter.await(w.done);
+                result.imported += w.rows;
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                result.notSaved += w.rows;
+                result.errors.add("Lines " + w.firstLine + "-" + w.lastLine + ": "
+                        + "write failed, " + w.rows + " rows may not be saved (" + ex.getMessage() + ")");
+            }
+        }
+        return result;
+    }
+
+    private ChunkWrite processChunk(List<Row> chunk, LineSource source,
+                                    Set<String> taken, ImportResult result) {
+        // Parsing and field rules are independent per row: do them in parallel
+        chunk.parallelStream().forEach(r -> {
+            String[] v = source.parse(r.line);
+            r.values = v;
+            r.error = (v == null)
+                    ? "Could not read this line."
+                    : EmployeeValidator.validate(v[0], v[1], v[2], v[3], v[4], v[5], v[PASSWORD], v[6]);
+        });
+
+        // Uniqueness depends on order: sequential, against the in-memory set
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        for (Row r : chunk) {
+            if (r.error == null && !taken.add(r.values[1].trim().toLowerCase())) {
+                r.error = "Username already exists: " + r.values[1];
+            }
+            if (r.error != null) {
+                result.rejected++;
+                result.errors.add("Line " + r.lineNo + ": " + r.error);
+                continue;
+            }
+            accepted.add(r);
+        }
+
+        // PBKDF2 only for the rows that will be stored, again in parallel
+        List<Employee> valid = accepted.parallelStream().map(r -> {
+            String[] v = r.values;
+            return new Employee(v[0], v[1], v[2], v[3], v[4], v[5], v[6],
+                    PasswordHasher.hash(v[PASSWORD]), "employee");
+        }).collect(Collectors.toList());
+
+        int firstLine = chunk.get(0).lineNo;
+        int lastLine = chunk.get(chunk.size() - 1).lineNo;
+        return new ChunkWrite(firstLine, lastLine, valid.size(), model.saveEmployeesAsync(valid));
+    }
+
+    // --------------------------------------------------
+    // Input formats
+    // --------------------------------------------------
+    private interface LineSource {
+        boolean isHeader(String line);
+        String[] parse(String line);   // values in COLUMNS order, or null if unreadable; thread-safe
+    }
+
+    // Every column but the password is trimmed; the password is kept as written
+    private static String cell(int column, String value) {
+        return column == PASSWORD ? value : value.trim();
+    }
+
+    private static LineSource detect(File file, String firstLine) {
+        String name = file.getName().toLowerCase();
+        if (name.endsWith(".csv")) return new CsvSource();
+        if (firstLine.trim().startsWith("{")) return new JsonLinesSource();
+        return new CsvSource();
+    }
+
+    private static class JsonLinesSource implements LineSource {
+        private final ThreadLocal<JsonLineParser.Fields> fields =
+                ThreadLocal.withInitial(() -> new JsonLineParser.Fields(COLUMNS));
+
+        @Override
+        public boolean isHeader(String line) {
+            return false;
+        }
+
+        @Override
+        public String[] parse(String line) {
+            JsonLineParser.Fields f = fields.get();
+            if (!JsonLineParser.parse(line, f)) return null;
+
+            String[] v = new String[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                String s = f.get(COLUMNS[i]);
+                v[i] = s == null ? "" : cell(i, s);
+            }
+            return v;
+        }
+    }
+
+    private static class CsvSource implements LineSource {
+        // column index in the file for each of COLUMNS (default: same order)
+        private final int[] map = IntStream.range(0, COLUMNS.length).toArray();
+
+        @Override
+        public boolean isHeader(String line) {
+            List<String> cells = splitCsv(line);
+            List<String> lower = cells.stream().map(c -> c.trim().toLowerCase()).collect(Collectors.toList());
+            if (!lower.contains("username")) return false;
+
+            for (int i = 0; i < COLUMNS.length; i++) {
+                map[i] = lower.indexOf(COLUMNS[i].toLowerCase());
+            }
+            return true;
+        }
+
+        @Override
+        public String[] parse(String line) {
+            List<String> cells = splitCsv(line);
+            String[] v = new String[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                int idx = map[i];
+                v[i] = (idx >= 0 && idx < cells.size()) ? cell(i, cells.get(idx)) : "";
+            }
+            return v;
+        }
+
+        private static List<String> splitCsv(String line) {
+            List<String> out = new ArrayList<>();
+            StringBuilder cur = new StringBuilder();
+            boolean quoted = false;
+
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            cur.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        cur.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    out.add(cur.toString());
+                    cur.setLength(0);
+                } else {
+                    cur.append(c);
+                }
+            }
+            out.add(cur.toString());
+            return out;
+        }
+    }
+}
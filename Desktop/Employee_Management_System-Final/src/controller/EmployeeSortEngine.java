@@ -0,0 +1,99 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import model.Employee;
+
+/**
+ * Comparator-based sorting for the employee directory.
+ *
+ * Works on an array snapshot: each employee's sort keys are trimmed and
+ * case-folded once up front (not on every comparison), then the array is
+ * sorted with Arrays.sort, or Arrays.parallelSort for large lists. Both are
+ * stable, so equal keys keep their file order. Several keys can be combined,
+ * e.g. department then name.
+ */
+public final class EmployeeSortEngine {
+
+    public enum SortKey {
+        NAME(Employee::getFullName),
+        USERNAME(Employee::getUsername),
+        EMAIL(Employee::getEmail),
+        DEPARTMENT(Employee::getDepartment),
+        EMPLOYEE_TYPE(Employee::getEmployeeType),
+        ADDRESS(Employee::getAddress);
+
+        private final Function<Employee, String> field;
+
+        SortKey(Function<Employee, String> field) {
+            this.field = field;
+        }
+
+        String collationKey(Employee e) {
+            if (e == null) return "";
+            String v = field.apply(e);
+            return v == null ? "" : v.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // Below this, the fork/join overhead of parallelSort is not worth it
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    // An employee with its precomputed keys
+    private static final class Keyed implements Comparable<Keyed> {
+        final Employee employee;
+        final String[] keys;
+
+        Keyed(Employee employee, String[] keys) {
+            this.employee = employee;
+            this.keys = keys;
+        }
+
+        @Override
+        public int compareTo(Keyed o) {
+            for (int i = 0; i < keys.length; i++) {
+                int c = keys[i].compareTo(o.keys[i]);
+                if (c != 0) return c;
+            }
+            return 0;
+        }
+    }
+
+    private EmployeeSortEngine() {
+    }
+
+    /**
+     * Sorted copy of the employees, ordered by the keys in turn (A–Z).
+     * With no keys the input order is kept.
+     */
+    public static List<Employee> sort(Collection<Employee> employees, SortKey... keys) {
+        if (employees == null || employees.isEmpty()) return new ArrayList<>();
+        if (keys == null || keys.length == 0) return new ArrayList<>(employees);
+
+        Keyed[] arr = new Keyed[employees.size()];
+        int n = 0;
+        for (Employee e : employees) {
+            String[] k = new String[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                k[i] = keys[i].collationKey(e);
+            }
+            arr[n++] = new Keyed(e, k);
+        }
+
+        if (n >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(arr, 0, n);
+        } else {
+            Arrays.sort(arr, 0, n);
+        }
+
+        Employee[] out = new Employee[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = arr[i].employee;
+        }
+        return new ArrayList<>(Arrays.asList(out));
+    }
+}
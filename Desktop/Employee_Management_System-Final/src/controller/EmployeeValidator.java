@@ -0,0 +1,61 @@
+package controller;
+
+/**
+ * Field rules for a new employee, shared by the Add Employee form and bulk import.
+ */
+public final class EmployeeValidator {
+
+    private EmployeeValidator() {
+    }
+
+    /**
+     * Returns the error message to show, or null if the values are valid.
+     * Does not check username uniqueness (callers do that against their own source).
+     */
+    public static String validate(String fullName, String username, String email, String phone,
+                                  String department, String address, String password,
+                                  String employeeType) {
+        // Basic validation
+        if (isEmpty(fullName) || isEmpty(username) ||
+            isEmpty(email) || isEmpty(phone) ||
+            isEmpty(department) || isEmpty(address) ||
+            isEmpty(password) || isEmpty(employeeType)) {
+            return "All fields are required, including password and employee type.";
+        }
+
+        // BASIC: email format
+        if (!isBasicEmail(email)) {
+            return "Please enter a valid email address.";
+        }
+
+        // BASIC: phone digits only + 10 digits
+        String phoneDigits = phone.trim();
+        if (!phoneDigits.matches("\\d+")) {
+            return "Phone number must contain digits only.";
+        }
+        if (phoneDigits.length() != 10) {
+            return "Phone number must be exactly 10 digits.";
+        }
+
+        // BASIC: password length
+        if (password.length() < 6) {
+            return "Password must be at least 6 characters.";
+        }
+
+        return null;
+    }
+
+    // BASIC email validator: must contain '@' and a '.' after '@'
+    public static boolean isBasicEmail(String email) {
+        if (email == null) return false;
+        String e = email.trim();
+        int at = e.indexOf('@');
+        if (at <= 0 || at != e.lastIndexOf('@')) return false;
+        int dot = e.indexOf('.', at + 1);
+        return dot > at + 1 && dot < e.length() - 1;
+    }
+
+    private static boolean isEmpty(String s) {
+        return s == null || s.isEmpty();
+    }
+}
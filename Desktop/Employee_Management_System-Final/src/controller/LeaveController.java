@@ -1,87 +1,79 @@
 package controller;
 
+import java.io.IOException;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
+import model.LeaveEventLog;
 import model.LeaveRequest;
+import model.LeaveStore;
 
 public class LeaveController {
 
     // ===============================
-    // Manual Leave Request Queue (FIFO)
+    // Leave Requests (FIFO)
     // ===============================
-    private static final int MAX_LEAVE_QUEUE_SIZE = 500;
-    private static final LeaveRequest[] leaveQueue = new LeaveRequest[MAX_LEAVE_QUEUE_SIZE];
-
-    private static int leaveFront = 0;
-    private static int leaveRear = -1;
-    private static int leaveSize = 0;
+    // Unbounded: undecided requests sit in a chunked FIFO, decided ones are
+    // archived out of it (see LeaveStore)
+    private static final LeaveStore leaves = new LeaveStore();
+
+    // Durable copy of every change; the store is rebuilt from it on startup (null if it could not be opened)
+    private static final LeaveEventLog leaveLog = openLeaveLog();
+
+    private static LeaveEventLog openLeaveLog() {
+        try {
+            LeaveEventLog log = LeaveEventLog.fromSystemProperties();
+            log.recover(leaves, LeaveController.class);   // the lock every synchronized method below holds
+
+            leaves.addListener(log);   // from here on every change is logged
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    log.close();       // push out whatever the fsync interval is still holding
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            }, "leave-log-close"));
+            return log;
+        } catch (IOException ex) {
+            ex.printStackTrace();      // keep working in memory only
+            return null;
+        }
+    }
 
-    public static boolean isLeaveQueueEmpty() {
-        return leaveSize == 0;
+    public static synchronized boolean isLeaveQueueEmpty() {
+        return leaves.size() == 0;
     }
 
+    // Kept for callers: the store grows as needed and is never full
     public static boolean isLeaveQueueFull() {
-        return leaveSize == MAX_LEAVE_QUEUE_SIZE;
+        return false;
     }
 
     // ENQUEUE (add to rear)
     public static synchronized boolean enqueueLeave(LeaveRequest req) {
-        if (req == null || isLeaveQueueFull()) return false;
+        if (req == null) return false;
 
-        leaveRear = (leaveRear + 1) % MAX_LEAVE_QUEUE_SIZE;
-        leaveQueue[leaveRear] = req;
-        leaveSize++;
+        leaves.submit(req);
         return true;
     }
 
-    // DEQUEUE (remove from front)
+    // DEQUEUE (remove the oldest pending request)
     public static synchronized LeaveRequest dequeueLeave() {
-        if (isLeaveQueueEmpty()) return null;
-
-        LeaveRequest req = leaveQueue[leaveFront];
-        leaveQueue[leaveFront] = null;
-        leaveFront = (leaveFront + 1) % MAX_LEAVE_QUEUE_SIZE;
-        leaveSize--;
-        return req;
+        return leaves.pollPending();
     }
 
-    // Convert queue -> list FIFO (oldest first)
+    // All requests FIFO (oldest first)
     public static synchronized List<LeaveRequest> getAllLeavesFIFO() {
-        List<LeaveRequest> list = new ArrayList<>();
-        if (isLeaveQueueEmpty()) return list;
-
-        int idx = leaveFront;
-        for (int i = 0; i < leaveSize; i++) {
-            list.add(leaveQueue[idx]);
-            idx = (idx + 1) % MAX_LEAVE_QUEUE_SIZE;
-        }
-        return list;
+        return leaves.all();
     }
 
     // Employee view: only current user's requests
     public static synchronized List<LeaveRequest> getLeavesForUserFIFO(String username) {
-        List<LeaveRequest> all = getAllLeavesFIFO();
-        List<LeaveRequest> mine = new ArrayList<>();
-        for (LeaveRequest r : all) {
-            if (r != null && r.getUsername().equals(username)) mine.add(r);
-        }
-        return mine;
+        return leaves.forUser(username);
     }
 
-    // Peek (do not remove) the oldest PENDING request
-    public static synchronized LeaveRequest peekNextPendingLeave() {
-        if (isLeaveQueueEmpty()) return null;
-
-        int idx = leaveFront;
-        for (int i = 0; i < leaveSize; i++) {
-            LeaveRequest r = leaveQueue[idx];
-            if (r != null && "Pending".equalsIgnoreCase(r.getStatus())) {
-                return r;
-            }
-            idx = (idx + 1) % MAX_LEAVE_QUEUE_SIZE;
-        }
-        return null;
+    // Peek (do not remove) the oldest PENDING request (no lock: see LeaveStore)
+    public static LeaveRequest peekNextPendingLeave() {
+        return leaves.peekPending();
     }
 
     // Update status/remarks (admin decision)
@@ -90,6 +82,7 @@ public class LeaveController {
 
         target.setStatus(newStatus);
         target.setRemarks(remarks == null ? "" : remarks);
+        leaves.statusChanged(target);
         return true;
     }
 
@@ -98,24 +91,9 @@ public class LeaveController {
         return getAllLeavesFIFO();
     }
 
-    // Remove a specific request from queue while preserving FIFO order
+    // Remove a specific request while preserving FIFO order of the rest
     public static synchronized boolean removeLeaveRequestFromQueue(LeaveRequest target) {
-        if (target == null || isLeaveQueueEmpty()) return false;
-
-        int n = leaveSize;
-        boolean removed = false;
-
-        for (int i = 0; i < n; i++) {
-            LeaveRequest r = dequeueLeave();
-            if (r == null) continue;
-
-            if (!removed && r == target) {
-                removed = true;
-                continue;
-            }
-            enqueueLeave(r);
-        }
-        return removed;
+        return leaves.remove(target);
     }
 
     // Update fields (employee side) only if Pending and at least one change
@@ -154,6 +132,7 @@ public class LeaveController {
             changed = true;
         }
 
+        if (changed) leaves.fieldsChanged(target);
         return changed;
     }
 
@@ -185,18 +164,9 @@ public class LeaveController {
         boolean changed = updateLeaveRequestFields(target, newFromDate, newToDate, newLeaveType, newReason);
         return changed ? LeaveUpdateResult.UPDATED : LeaveUpdateResult.NO_CHANGES;
     }
- // Count total leave requests whose status is Pending
-    public static synchronized int countPendingLeaves() {
-    int count = 0;
-    List<LeaveRequest> requests = getAllLeavesFIFO();
-    for (LeaveRequest r : requests) {
-        if (r == null) continue;
-        String st = r.getStatus();
-        if (st != null && st.equalsIgnoreCase("Pending")) {
-            count++;
-        }
-    }
-    return count;
+ // Count total leave requests whose status is Pending (no lock: see LeaveStore)
+    public static int countPendingLeaves() {
+    return leaves.pendingCount();
 }
     public static class EmployeeLeaveUpdateResult {
     public final boolean success;
@@ -52,7 +52,7 @@ public class RegisterController {
             return;
         }
 
-        // For now plain password (later: hash here)
+        // Password is hashed by AdminModel before it is written
         String status = "admin"; // because this is admin registration
 
         Admin admin = new Admin(name, username, email, password, status);
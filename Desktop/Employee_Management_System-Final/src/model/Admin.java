@@ -12,7 +12,7 @@ public class Admin {
         private String name;
     private String username;
     private String email;
-    private String password;  // plain text for now (hash later)
+    private String password;  // as typed; AdminModel stores a PBKDF2 hash
     private String status;    // e.g. "admin" or "employee"
 
     public Admin(String name, String username, String email, String password, String status) {
@@ -9,10 +9,27 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.LinkedList;   // use LinkedList for task storage
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AdminModel {
 
-    private static final String FILE_PATH = "./users.txt";
+    static final String FILE_PATH = "./users.txt";
+    static final String LOG_PATH = "./users.db";
+
+    // First key of every record this version writes; records without it are
+    // from the old escaper and are read with JsonLineParser's legacy rules
+    static final String FORMAT_KEY = "v";
+    private static final String FORMAT_FIELD = "\"" + FORMAT_KEY + "\":2,";
+
+    // Storage engine shared by all AdminModel instances (users.txt unless -Dems.storage=binlog)
+    private static volatile UserStorageEngine storage;
+    private static final Object STORAGE_LOCK = new Object();
+    private static boolean storageCloseHook = false;   // guarded by STORAGE_LOCK
 
     private final List<Admin> admins = new ArrayList<>();
     private final List<Employee> employees = new ArrayList<>();
@@ -32,37 +49,31 @@ public class AdminModel {
             if (e.getUsername().equalsIgnoreCase(username)) return true;
         }
 
-        // file check
-        File file = new File(FILE_PATH);
-        if (!file.exists()) return false;
-
-        String search = "\"username\":\"" + escape(username) + "\"";
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.contains(search)) {
-                    return true;
-                }
-            }
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
-
-        return false;
+        // users.txt check (served from the shared in-memory index)
+        return UserDirectory.getInstance().containsUsername(username);
     }
 
     // --------------------------------------------------
     // ADMIN saving
     // --------------------------------------------------
     public void saveAdmin(Admin admin) throws IOException {
+        GroupCommitWriter.await(saveAdminAsync(admin));
+    }
+
+    /**
+     * Queue the admin record; the future completes once it is stored.
+     */
+    public CompletableFuture<Void> saveAdminAsync(Admin admin) {
         admins.add(admin);
-        String json = toJsonAdmin(admin);
-        writeLineToFile(json);
+
+        // Hash off the caller's thread (PBKDF2 is deliberately slow)
+        return CompletableFuture.supplyAsync(() -> withHashedPassword(admin))
+                .thenCompose(stored -> writeLineToFile(stored.getUsername(), toJsonAdmin(stored))
+                        .thenRun(() -> UserDirectory.getInstance().addAdmin(stored)));
     }
 
     private String toJsonAdmin(Admin admin) {
-        return "{"
+        return "{" + FORMAT_FIELD
                 + "\"role\":\"admin\","
                 + "\"name\":\""      + escape(admin.getName())     + "\","
                 + "\"username\":\""  + escape(admin.getUsername()) + "\","
@@ -75,32 +86,53 @@ public class AdminModel {
     // EMPLOYEE saving
     // --------------------------------------------------
     public void saveEmployee(Employee emp) throws IOException {
-        employees.add(emp);
-        String json = toJsonEmployee(emp);
-        writeLineToFile(json);
+        GroupCommitWriter.await(saveEmployeeAsync(emp));
     }
-    
-    public static int getTotalEmployeeCount() {
-    File file = new File(FILE_PATH);
-    if (!file.exists()) return 0;
 
-    int count = 0;
+    /**
+     * Queue the employee record; the future completes once it is stored
+     * (as durable as the storage's fsync policy makes it).
+     */
+    public CompletableFuture<Void> saveEmployeeAsync(Employee emp) {
+        employees.add(emp);
 
-    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-        String line;
-        while ((line = br.readLine()) != null) {
-            if (line.contains("\"role\":\"employee\"")) {
-                count++;
-            }
+        // Hash off the caller's thread (PBKDF2 is deliberately slow)
+        return CompletableFuture.supplyAsync(() -> withHashedPassword(emp))
+                .thenCompose(stored -> writeLineToFile(stored.getUsername(), toJsonEmployee(stored))
+                        .thenRun(() -> UserDirectory.getInstance().addEmployee(stored)));
+    }
+    
+    /**
+     * Store many employees with one batched append (used by bulk import).
+     * Passwords should already be hashed (PasswordHasher.hash) so the work can be
+     * spread across threads by the caller; plain ones are hashed here.
+     */
+    public CompletableFuture<Void> saveEmployeesAsync(List<Employee> emps) {
+        if (emps == null || emps.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<Employee> batch = new ArrayList<>(emps.size());
+        for (Employee emp : emps) {
+            batch.add(withHashedPassword(emp));
         }
-    } catch (IOException ex) {
-        ex.printStackTrace();
+        List<String> usernames = new ArrayList<>(batch.size());
+        List<String> lines = new ArrayList<>(batch.size());
+        for (Employee emp : batch) {
+            usernames.add(emp.getUsername());
+            lines.add(toJsonEmployee(emp));
+        }
+        // Not added to the per-instance 'employees' list: isUserExists scans that list,
+        // and bulk rows are indexed by UserDirectory as soon as the append completes.
+        return getStorageEngine().appendAllAsync(usernames, lines)
+                .thenRun(() -> UserDirectory.getInstance().addEmployees(batch));
+    }
+
+    public static int getTotalEmployeeCount() {
+        return UserDirectory.getInstance().getEmployeeCount();
     }
 
-    return count;
-}
     private String toJsonEmployee(Employee emp) {
-        return "{"
+        return "{" + FORMAT_FIELD
                 + "\"role\":\"employee\","
                 + "\"fullName\":\""     + escape(emp.getFullName())    + "\","
                 + "\"username\":\""     + escape(emp.getUsername())    + "\","
@@ -116,22 +148,80 @@ public class AdminModel {
     // --------------------------------------------------
     // Common helpers
     // --------------------------------------------------
-    private void writeLineToFile(String json) throws IOException {
-        File file = new File(FILE_PATH);
-        File parent = file.getParentFile();
-        if (parent != null && !parent.exists()) {
-            parent.mkdirs();
+    private CompletableFuture<Void> writeLineToFile(String username, String json) {
+        return getStorageEngine().appendAsync(username, json);
+    }
+
+    private String escape(String s) {
+        return JsonLineParser.escape(s);
+    }
+
+    /**
+     * Fields for reading user records, current or legacy format.
+     */
+    static JsonLineParser.Fields userFields(String... keys) {
+        return JsonLineParser.Fields.versioned(FORMAT_KEY, keys);
+    }
+
+    // --------------------------------------------------
+    // Storage engine selection
+    // --------------------------------------------------
+    public static UserStorageEngine getStorageEngine() {
+        UserStorageEngine s = storage;
+        if (s != null) return s;
+
+        synchronized (STORAGE_LOCK) {
+            if (storage == null) {
+                storage = createDefaultStorage();
+                registerStorageCloseHook();
+            }
+            return storage;
         }
+    }
 
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file, true))) {
-            bw.write(json);
-            bw.newLine();
+    /**
+     * Swap the storage engine (e.g. to a BinaryLogStorageEngine); the user index is rebuilt from it.
+     */
+    public static void setStorageEngine(UserStorageEngine engine) {
+        if (engine == null) return;
+        synchronized (STORAGE_LOCK) {
+            storage = engine;
+            registerStorageCloseHook();
         }
+        UserDirectory.getInstance().invalidate();
     }
 
-    private String escape(String s) {
-        if (s == null) return "";
-        return s.replace("\"", "\\\"");
+    // One hook for the JVM; it closes whichever engine is current at exit
+    private static void registerStorageCloseHook() {
+        if (storageCloseHook) return;
+        storageCloseHook = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            UserStorageEngine s = storage;
+            if (s == null) return;
+            try {
+                s.close();      // push out whatever the fsync policy is still holding
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }, "user-storage-close"));
+    }
+
+    private static UserStorageEngine createDefaultStorage() {
+        if ("binlog".equalsIgnoreCase(System.getProperty("ems.storage"))) {
+            try {
+                BinaryLogStorageEngine log = new BinaryLogStorageEngine(new File(LOG_PATH));
+
+                // First start on the binary log: bring existing users across
+                File txt = new File(FILE_PATH);
+                if (log.isEmpty() && txt.exists()) {
+                    log.importTextFile(txt);
+                }
+                return log;
+            } catch (IOException ex) {
+                ex.printStackTrace(); // fall back to users.txt
+            }
+        }
+        return new TextFileStorageEngine(new File(FILE_PATH));
     }
 
     public List<Admin> getAdmins() {
@@ -142,39 +232,113 @@ public class AdminModel {
         return employees;
     }
     public String authenticateUser(String username, String password) {
-    File file = new File(FILE_PATH);
-
-    if (!file.exists()) {
-        return null;
-    }
+        if (username == null || password == null) {
+            return null;
+        }
 
-    String userPattern = "\"username\":\"" + escape(username) + "\"";
-    String passPattern = "\"password\":\"" + escape(password) + "\"";
+        UserDirectory.UserEntry entry = UserDirectory.getInstance().findByUsername(username);
 
-    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-        String line;
-        while ((line = br.readLine()) != null) {
+        // Same rules as the old file scan: exact username
+        if (entry == null || !username.equals(entry.getUsername())) {
+            return null; // no match
+        }
 
-            // Does line contain matching username + password?
-            if (line.contains(userPattern) && line.contains(passPattern)) {
+        String stored = entry.getPassword();
+        if (!AUTH_CACHE.matches(username, stored, password)) {
+            if (!PasswordHasher.verify(password, stored)) {
+                return null; // wrong password
+            }
+            if (PasswordHasher.needsRehash(stored)) {
+                // Plain-text (or weaker) record: store a fresh hash in the background
+                migratePassword(entry, password);
+            } else {
+                AUTH_CACHE.remember(username, stored, password);
+            }
+        }
 
-                // Determine role
-                if (line.contains("\"role\":\"admin\"")) {
-                    return "admin";
-                } 
-                if (line.contains("\"role\":\"employee\"")) {
-                    return "employee";
+        if ("admin".equals(entry.getRole())) {
+            return "admin";
+        }
+        if ("employee".equals(entry.getRole())) {
+            return "employee";
+        }
+        return "unknown";
+    }
+    // --------------------------------------------------
+    // Password hashing helpers
+    // --------------------------------------------------
+    private static final AuthCache AUTH_CACHE = AuthCache.fromSystemProperties();
+
+    // Usernames (exact case) with a migration queued or running: one per user
+    private static final Set<String> MIGRATING = ConcurrentHashMap.newKeySet();
+
+    // Migrations run one at a time; when the queue drains the storage is
+    // compacted so the superseded plain-text lines leave the disk
+    private static final ExecutorService MIGRATOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "password-migration");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final AtomicInteger MIGRATIONS_QUEUED = new AtomicInteger();
+
+    private void migratePassword(UserDirectory.UserEntry entry, String password) {
+        String key = entry.getUsername();
+        if (!MIGRATING.add(key)) return;   // another login is already migrating this user
+
+        MIGRATIONS_QUEUED.incrementAndGet();
+        MIGRATOR.execute(() -> {
+            try {
+                // The record may have been migrated (or replaced) since this login read it
+                UserDirectory.UserEntry current = UserDirectory.getInstance().findByUsername(entry.getUsername());
+                if (current != null && PasswordHasher.needsRehash(current.getPassword())
+                        && PasswordHasher.verify(password, current.getPassword())) {
+                    storeHashed(current, PasswordHasher.hash(password));
                 }
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            } finally {
+                MIGRATING.remove(key);
+            }
 
-                return "unknown";
+            if (MIGRATIONS_QUEUED.decrementAndGet() == 0) {
+                try {
+                    getStorageEngine().compact();
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
             }
+        });
+    }
+
+    private void storeHashed(UserDirectory.UserEntry entry, String hashed) throws IOException {
+        if (entry.getAdmin() != null) {
+            Admin a = entry.getAdmin();
+            Admin stored = new Admin(a.getName(), a.getUsername(), a.getEmail(), hashed, a.getStatus());
+            GroupCommitWriter.await(writeLineToFile(stored.getUsername(), toJsonAdmin(stored)));
+            UserDirectory.getInstance().addAdmin(stored);
+        } else if (entry.getEmployee() != null) {
+            Employee stored = withPassword(entry.getEmployee(), hashed);
+            GroupCommitWriter.await(writeLineToFile(stored.getUsername(), toJsonEmployee(stored)));
+            UserDirectory.getInstance().addEmployee(stored);
         }
-    } catch (IOException ex) {
-        ex.printStackTrace();
     }
 
-    return null; // no match
+    private static Admin withHashedPassword(Admin a) {
+        if (a.getPassword() == null || PasswordHasher.isHashed(a.getPassword())) return a;
+        return new Admin(a.getName(), a.getUsername(), a.getEmail(),
+                PasswordHasher.hash(a.getPassword()), a.getStatus());
     }
+
+    private static Employee withHashedPassword(Employee e) {
+        if (e.getPassword() == null || PasswordHasher.isHashed(e.getPassword())) return e;
+        return withPassword(e, PasswordHasher.hash(e.getPassword()));
+    }
+
+    private static Employee withPassword(Employee e, String password) {
+        return new Employee(e.getFullName(), e.getUsername(), e.getEmail(), e.getPhone(),
+                e.getDepartment(), e.getAddress(), e.getEmployeeType(), password, e.getRole());
+    }
+
 // In-memory tasks & weekly remarks per employee (shared across app)
 
     // use LinkedList internally for tasks
@@ -259,85 +423,12 @@ public static synchronized void saveWeeklyRating(String username, int rating) {
 // ==========================================================
 
 /**
- * Reads `users.txt` and returns a LinkedList containing only users with role=employee.
+ * Returns a LinkedList containing only users with role=employee from `users.txt`.
  * Intended for Admin "Display Employees" screen (sort/search can be done on this list).
  *
- * This does NOT change your existing save logic; it only reads the file.
+ * The file is read once by UserDirectory; later calls copy from its in-memory index.
  */
 public static synchronized LinkedList<Employee> loadEmployeesFromFileAsLinkedList() {
-    LinkedList<Employee> result = new LinkedList<>();
-
-    File file = new File(FILE_PATH);
-    if (!file.exists()) return result;
-
-    try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-        String line;
-        while ((line = br.readLine()) != null) {
-            if (!line.contains("\"role\":\"employee\"")) continue;
-
-            String fullName = readJsonValue(line, "fullName");
-            if (fullName == null || fullName.isBlank()) {
-                // fallback for older records (if any)
-                fullName = readJsonValue(line, "name");
-            }
-
-            String username = readJsonValue(line, "username");
-            String email = readJsonValue(line, "email");
-            String phone = readJsonValue(line, "phone");
-            String department = readJsonValue(line, "department");
-            String employeeType = readJsonValue(line, "employeeType");
-            String address = readJsonValue(line, "address");
-            String password = readJsonValue(line, "password");
-
-            // Avoid nulls
-            if (fullName == null) fullName = "";
-            if (username == null) username = "";
-            if (email == null) email = "";
-            if (phone == null) phone = "";
-            if (department == null) department = "";
-            if (employeeType == null) employeeType = "";
-            if (address == null) address = "";
-            if (password == null) password = "";
-
-            // Match your Employee constructor signature used elsewhere in this project.
-            // (This matches the same ordering used in saveEmployee/toJsonEmployee.)
-            Employee emp = new Employee(
-                    fullName,
-                    username,
-                    email,
-                    phone,
-                    department,
-                    address,
-                    employeeType,
-                    password,
-                    "employee"
-            );
-
-            result.add(emp);
-        }
-    } catch (IOException ex) {
-        ex.printStackTrace();
-    }
-
-    return result;
+    return new LinkedList<>(UserDirectory.getInstance().getEmployees());
 }
-
-/**
- * Lightweight JSON value reader for the one-line-per-user format you store in users.txt.
- * NOTE: This is not a general JSON parser; it is sufficient for your current file format.
- */
-private static String readJsonValue(String jsonLine, String key) {
-    if (jsonLine == null || key == null) return null;
-
-    String needle = "\"" + key + "\":\"";
-    int start = jsonLine.indexOf(needle);
-    if (start < 0) return null;
-
-    start += needle.length();
-    int end = jsonLine.indexOf('"', start);
-    if (end < 0) return null;
-
-    String raw = jsonLine.substring(start, end);
-    return raw.replace("\\\"", "\"");
 }
-}
\ No newline at end of file
@@ -0,0 +1,377 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only attendance journal with snapshots.
+ *
+ * Journal record layout (20 bytes, big endian):
+ *   byte  op          1 = punch in, 2 = punch out
+ *   byte  flags       AttendanceStore.FLAG_* (punch out)
+ *   short reserved
+ *   int   user id     (see AttendanceUserIds)
+ *   int   epoch day
+ *   int   second of day
+ *   int   crc32 of the 16 bytes above
+ *
+ * Punches are handed to a GroupCommitWriter and not waited for, so a punch
+ * costs a queue insert; durability follows the configured fsync policy.
+ *
+ * A snapshot holds every row of the AttendanceStore (same ids, 20 bytes a row)
+ * plus the journal offset it covers. Recovery
+ * loads the snapshot, replays the journal from that offset (stopping at a torn
+ * or corrupt tail), then writes a fresh snapshot and starts an empty journal.
+ * While running, a new snapshot is taken in the background every
+ * snapshotEvery records. Replaying a punch that is already in the state is a
+ * no-op, so a snapshot taken while punches continue is still safe to replay over.
+ *
+ * A runtime snapshot rotates the journal first: the current file becomes
+ * <journal>.prev and punches go to a fresh journal. Once the snapshot (which
+ * covers everything in .prev) is on disk, .prev is deleted, so the journal
+ * only ever holds what came after the last snapshot. If the process dies in
+ * between, recovery replays .prev from the snapshot's offset and then the
+ * journal from the start.
+ */
+public final class AttendanceJournal implements AttendanceStore.Listener, AutoCloseable {
+
+    public static final byte OP_PUNCH_IN = 1;
+    public static final byte OP_PUNCH_OUT = 2;
+
+    static final int RECORD_SIZE = 20;
+
+    private static final int SNAPSHOT_MAGIC = 0x454D5341;   // "EMSA"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    /**
+     * Receives recovered punches, oldest first.
+     */
+    public interface Replay {
+        void punchIn(String username, LocalDate date, LocalTime time);
+        void punchOut(String username, LocalDate date, LocalTime time, int flags);
+    }
+
+    private final File journalFile;
+    private final File previousFile;     // journal being retired by a snapshot
+    private final File snapshotFile;
+    private final AttendanceUserIds ids;
+    private final GroupCommitWriter.FsyncPolicy policy;
+    private final long fsyncIntervalMillis;
+    private final long snapshotEvery;
+
+    // Swapped by rotate(); appends submit under the read lock so none can
+    // reach a writer after it has been retired
+    private volatile GroupCommitWriter writer;
+    private final ReadWriteLock rotateLock = new ReentrantReadWriteLock();
+    private AttendanceStore state;
+
+    private final AtomicLong sinceSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotQueued = new AtomicBoolean();
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "attendance-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public AttendanceJournal(File journalFile, File snapshotFile, AttendanceUserIds ids,
+                             GroupCommitWriter.FsyncPolicy policy, long fsyncIntervalMillis,
+                             long snapshotEvery) {
+        this.journalFile = journalFile;
+        this.previousFile = new File(journalFile.getPath() + ".prev");
+        this.snapshotFile = snapshotFile;
+        this.ids = ids;
+        this.policy = policy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+    }
+
+    /**
+     * Journal in ./attendance.journal, configured from system properties:
+     * ems.attendance.fsync (batch | interval | never, default interval),
+     * ems.attendance.fsyncIntervalMs (default 100),
+     * ems.attendance.snapshotEvery (records, default 100000).
+     */
+    public static AttendanceJournal fromSystemProperties(AttendanceUserIds ids) {
+        return new AttendanceJournal(new File("./attendance.journal"), new File("./attendance.snapshot"), ids,
+                GroupCommitWriter.FsyncPolicy.parse(System.getProperty("ems.attendance.fsync"),
+                        GroupCommitWriter.FsyncPolicy.INTERVAL),
+                Long.getLong("ems.attendance.fsyncIntervalMs", 100),
+                Long.getLong("ems.attendance.snapshotEvery", 100_000));
+    }
+
+    public AttendanceUserIds getUserIds() {
+        return ids;
+    }
+
+    // --------------------------------------------------
+    // Recovery
+    // --------------------------------------------------
+
+    /**
+     * Rebuild state through 'into' (which fills 'state'), then compact: the
+     * current contents of 'state' become the new snapshot and the journal
+     * starts empty. Call once, before any punch is logged.
+     */
+    public void recover(Replay into, AttendanceStore state) throws IOException {
+        long offset = loadSnapshot(into);
+        if (previousFile.exists()) {
+            // Rotated, but the snapshot covering .prev never landed: the offset is into .prev
+            replayJournal(into, previousFile, offset);
+            offset = 0;
+        }
+        replayJournal(into, journalFile, offset);
+
+        this.state = state;
+        writeSnapshot(0);
+        Files.deleteIfExists(previousFile.toPath());
+        try (FileChannel ch = FileChannel.open(journalFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ch.truncate(0);
+            ch.force(true);
+        }
+        writer = new GroupCommitWriter(journalFile, policy, fsyncIntervalMillis);
+    }
+
+    private long loadSnapshot(Replay into) throws IOException {
+        if (!snapshotFile.exists()) return 0;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not an attendance snapshot: " + snapshotFile);
+            }
+            long offset = in.readLong();
+            int rows = in.readInt();
+            for (int i = 0; i < rows; i++) {
+                int user = in.readInt();
+                int day = in.readInt();
+                int inSec = in.readInt();
+                int outSec = in.readInt();
+                int flags = in.readInt();
+
+                String username = ids.nameOf(user);
+                if (username == null) continue;
+                LocalDate date = LocalDate.ofEpochDay(day);
+                into.punchIn(username, date, LocalTime.ofSecondOfDay(inSec));
+                if (outSec >= 0) into.punchOut(username, date, LocalTime.ofSecondOfDay(outSec), flags);
+            }
+            return offset;
+        }
+    }
+
+    private void replayJournal(Replay into, File file, long from) throws IOException {
+        if (!file.exists()) return;
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            long at = from;
+            ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE * 4096);
+            CRC32 crc = new CRC32();
+
+            while (at + RECORD_SIZE <= size) {
+                buf.clear();
+                long want = Math.min(buf.capacity(), (size - at) / RECORD_SIZE * RECORD_SIZE);
+                buf.limit((int) want);
+                while (buf.hasRemaining()) {
+                    if (ch.read(buf, at + buf.position()) < 0) break;
+                }
+                buf.flip();
+
+                while (buf.remaining() >= RECORD_SIZE) {
+                    int start = buf.position();
+                    crc.reset();
+                    crc.update(buf.array(), start, RECORD_SIZE - 4);
+
+                    byte op = buf.get();
+                    int flags = buf.get();
+                    buf.getShort(); // reserved
+                    int user = buf.getInt();
+                    int day = buf.getInt();
+                    int sec = buf.getInt();
+                    if (buf.getInt() != (int) crc.getValue()) return;   // torn or corrupt tail: stop here
+                    at += RECORD_SIZE;
+
+                    String username = ids.nameOf(user);
+                    if (username == null || sec < 0 || sec >= 86_400) continue;
+                    LocalDate date = LocalDate.ofEpochDay(day);
+                    LocalTime time = LocalTime.ofSecondOfDay(sec);
+                    if (op == OP_PUNCH_IN) into.punchIn(username, date, time);
+                    else if (op == OP_PUNCH_OUT) into.punchOut(username, date, time, flags);
+                }
+            }
+        }
+    }
+
+    // --------------------------------------------------
+    // Logging (AttendanceStore.Listener, called under the record's stripe lock)
+    // --------------------------------------------------
+
+    @Override
+    public void punchedIn(AttendanceRecord r) {
+        append(OP_PUNCH_IN, 0, r.getUsername(), r.getDate(), r.getPunchIn());
+    }
+
+    @Override
+    public void punchedOut(AttendanceRecord r) {
+        append(OP_PUNCH_OUT, r.isFlaggedForReview() ? AttendanceStore.FLAG_AUTO_CLOSED : 0,
+                r.getUsername(), r.getDate(), r.getPunchOut());
+    }
+
+    private void append(byte op, int flags, String username, LocalDate date, LocalTime time) {
+        if (writer == null) return;   // not recovered yet
+
+        ByteBuffer rec;
+        try {
+            rec = encode(op, flags, ids.idOf(username), (int) date.toEpochDay(), time.toSecondOfDay());
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return;
+        }
+        rotateLock.readLock().lock();
+        try {
+            writer.submit(rec).whenComplete((offset, ex) -> {
+                if (ex != null) ex.printStackTrace();
+            });
+        } finally {
+            rotateLock.readLock().unlock();
+        }
+
+        if (sinceSnapshot.incrementAndGet() >= snapshotEvery && snapshotQueued.compareAndSet(false, true)) {
+            snapshotter.submit(this::snapshotQuietly);
+        }
+    }
+
+    static ByteBuffer encode(byte op, int flags, int user, int epochDay, int secondOfDay) {
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE);
+        buf.put(op).put((byte) flags).putShort((short) 0)
+           .putInt(user).putInt(epochDay).putInt(secondOfDay);
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, RECORD_SIZE - 4);
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+        return buf;
+    }
+
+    // --------------------------------------------------
+    // Snapshots
+    // --------------------------------------------------
+
+    /**
+     * Write a snapshot now (blocks until it is on disk) and drop the journal it covers.
+     */
+    public synchronized void snapshot() throws IOException {
+        sinceSnapshot.set(0);
+
+        // A .prev left by a failed snapshot is not covered yet: keep it and
+        // don't rotate again until a snapshot lands
+        if (!previousFile.exists()) rotate();
+
+        // Every punch in .prev is already in the state (the listener runs after
+        // the store changes). Punches that land in the new journal while the
+        // state is copied are replayed again on recovery (no-op).
+        writeSnapshot(0);
+        Files.deleteIfExists(previousFile.toPath());
+    }
+
+    // Retire the current journal as .prev and send new punches to a fresh one
+    private void rotate() throws IOException {
+        GroupCommitWriter old;
+        rotateLock.writeLock().lock();
+        try {
+            old = writer;
+            // Whatever the old writer still has queued goes to .prev through its open
+            // channel (or, if it never opened one, to the new journal): replayed either way
+            if (journalFile.exists()) {
+                Files.move(journalFile.toPath(), previousFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+            writer = new GroupCommitWriter(journalFile, policy, fsyncIntervalMillis);
+        } finally {
+            rotateLock.writeLock().unlock();
+        }
+        old.close();   // drains what was queued before the swap into .prev
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        } finally {
+            snapshotQueued.set(false);
+        }
+    }
+
+    private synchronized void writeSnapshot(long journalOffset) throws IOException {
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, 64 * 1024))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(journalOffset);
+            out.writeInt(0);   // row count, patched below
+
+            int[] rows = {0};
+            IOException[] failed = {null};
+            state.forEachRow((user, day, in, outSec, flags) -> {
+                if (failed[0] != null) return;
+                try {
+                    out.writeInt(user);
+                    out.writeInt(day);
+                    out.writeInt(in);
+                    out.writeInt(outSec);
+                    out.writeInt(flags);
+                    rows[0]++;
+                } catch (IOException ex) {
+                    failed[0] = ex;
+                }
+            });
+            if (failed[0] != null) throw failed[0];
+            out.flush();
+
+            ByteBuffer count = ByteBuffer.allocate(4).putInt(0, rows[0]);
+            fos.getChannel().write(count, 16);
+            fos.getFD().sync();
+        }
+        Files.move(tmp.toPath(), snapshotFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(30, TimeUnit.SECONDS);   // let a rotation finish
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        rotateLock.writeLock().lock();
+        try {
+            if (writer != null) writer.close();
+        } finally {
+            rotateLock.writeLock().unlock();
+        }
+        ids.close();
+    }
+}
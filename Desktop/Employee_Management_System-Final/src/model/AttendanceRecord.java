@@ -13,7 +13,8 @@ public class AttendanceRecord {
      private final String username;
     private final LocalDate date;
     private LocalTime punchIn;
-    private LocalTime punchOut;
+    private volatile LocalTime punchOut;   // set by punchOut while readers may be looking
+    private volatile boolean flaggedForReview;   // closed automatically, not by the employee
 
     public AttendanceRecord(String username, LocalDate date, LocalTime punchIn) {
         this.username = username;
@@ -42,6 +43,14 @@ public class AttendanceRecord {
         this.punchOut = punchOut;
     }
 
+    public boolean isFlaggedForReview() {
+        return flaggedForReview;
+    }
+
+    public void setFlaggedForReview(boolean flaggedForReview) {
+        this.flaggedForReview = flaggedForReview;
+    }
+
     public boolean isOpen() {
         return punchIn != null && punchOut == null;
     }
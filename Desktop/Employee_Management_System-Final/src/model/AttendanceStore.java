@@ -0,0 +1,472 @@
+package model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory attendance, sharded by employee.
+ *
+ * Each stripe has its own lock, so punches for employees in different stripes
+ * never wait on each other. History is columnar: one row per (employee, day)
+ * held in primitive arrays (user id, epoch day, punch-in second, punch-out
+ * second, flags: 17 bytes), plus one int for the row in each of the byUser
+ * and byDay indexes, so 25 bytes a row; arrays grow by doubling, so up to
+ * twice that right after a growth. Each employee and each (stripe, day) also
+ * costs one index entry (map node, boxed key, Rows and its int array, on the
+ * order of a hundred bytes). Usernames are kept once in an AttendanceUserIds
+ * dictionary. AttendanceRecord objects are built on
+ * demand; while a row is open its record object is kept so the caller's copy
+ * sees the punch-out.
+ *
+ * Rows are published through volatile fields: readers (snapshot(), scan())
+ * never take a stripe lock, so reports never hold up a punch.
+ */
+public final class AttendanceStore {
+
+    private static final int STRIPES = 64;   // power of two
+
+    /** Punch-out second of a row that is still open. */
+    public static final int OPEN = -1;
+
+    /** Row flag: punch-out was set by the auto punch-out sweep, needs review. */
+    public static final int FLAG_AUTO_CLOSED = 1;
+
+    private static final int LAST_SECOND_OF_DAY = 86_399;
+
+    /**
+     * Told about every accepted punch while the record's stripe is still
+     * locked, so events for one employee arrive in the order they happened.
+     */
+    public interface Listener {
+        void punchedIn(AttendanceRecord r);
+        void punchedOut(AttendanceRecord r);
+    }
+
+    /**
+     * Receives one row at a time during a scan (outSecond is OPEN for an open row).
+     */
+    public interface RowVisitor {
+        void visit(int userId, int epochDay, int inSecond, int outSecond, int flags);
+    }
+
+    private static final Comparator<AttendanceRecord> CHRONOLOGICAL =
+            Comparator.comparing(AttendanceRecord::getDate)
+                      .thenComparing(AttendanceRecord::getPunchIn);
+
+    // One stripe's rows. Replaced (copied) when it grows, never shrunk.
+    private static final class Columns {
+        final int[] user;
+        final int[] day;
+        final int[] in;
+        final int[] out;
+        final byte[] flags;
+
+        Columns(int capacity) {
+            user = new int[capacity];
+            day = new int[capacity];
+            in = new int[capacity];
+            out = new int[capacity];
+            flags = new byte[capacity];
+        }
+
+        Columns(Columns c, int capacity) {
+            user = Arrays.copyOf(c.user, capacity);
+            day = Arrays.copyOf(c.day, capacity);
+            in = Arrays.copyOf(c.in, capacity);
+            out = Arrays.copyOf(c.out, capacity);
+            flags = Arrays.copyOf(c.flags, capacity);
+        }
+    }
+
+    // Row numbers: one employee's rows ordered by day, or one day's rows in punch order
+    private static final class Rows {
+        int[] rows = new int[8];
+        int size = 0;
+
+        void add(int row) {
+            insert(size, row);
+        }
+
+        void insert(int at, int row) {
+            if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+            System.arraycopy(rows, at, rows, at + 1, size - at);
+            rows[at] = row;
+            size++;
+        }
+    }
+
+    private static final class Stripe {
+        volatile Columns cols = new Columns(64);
+        volatile int size = 0;
+        volatile long modCount = 0;   // bumped after in-place updates so lock-free readers see them
+
+        final Map<Integer, Rows> byUser = new HashMap<>();
+        final TreeMap<Integer, Rows> byDay = new TreeMap<>();
+        final Map<Integer, AttendanceRecord> open = new ConcurrentHashMap<>();   // open rows -> live record
+
+        int append(int user, int day, int in) {
+            int row = size;
+            Columns c = cols;
+            if (row == c.user.length) {
+                c = new Columns(c, row * 2);
+                cols = c;
+            }
+            c.user[row] = user;
+            c.day[row] = day;
+            c.in[row] = in;
+            c.out[row] = OPEN;
+            size = row + 1;   // publish
+            return row;
+        }
+
+        // Position of the user's row for 'day' in ur.rows, or -(insertion point) - 1.
+        // Punches arrive in date order, so the common case is the last row.
+        int search(Rows ur, int day) {
+            int[] d = cols.day;
+            if (ur.size == 0 || d[ur.rows[ur.size - 1]] < day) return -ur.size - 1;
+
+            int lo = 0, hi = ur.size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int v = d[ur.rows[mid]];
+                if (v < day) lo = mid + 1;
+                else if (v > day) hi = mid - 1;
+                else return mid;
+            }
+            return -lo - 1;
+        }
+    }
+
+    private final AttendanceUserIds ids;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public AttendanceStore() {
+        this(new AttendanceUserIds());
+    }
+
+    public AttendanceStore(AttendanceUserIds ids) {
+        this.ids = ids;
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    public AttendanceUserIds getUserIds() {
+        return ids;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Record a punch-in (to the second). Returns the new record, or null if the
+     * user already has a record for that date.
+     */
+    public AttendanceRecord punchIn(String username, LocalDate date, LocalTime time) {
+        int user;
+        try {
+            user = ids.idOf(username);
+        } catch (IOException ex) {
+            ex.printStackTrace();   // could not persist a new username: refuse the punch
+            return null;
+        }
+        int day = (int) date.toEpochDay();
+        int sec = time.toSecondOfDay();
+
+        Stripe s = stripeOf(user);
+        synchronized (s) {
+            Rows ur = s.byUser.computeIfAbsent(user, k -> new Rows());
+            int pos = s.search(ur, day);
+            if (pos >= 0) return null;
+
+            int row = s.append(user, day, sec);
+            ur.insert(-pos - 1, row);
+            s.byDay.computeIfAbsent(day, k -> new Rows()).add(row);
+
+            AttendanceRecord rec = new AttendanceRecord(username, date, LocalTime.ofSecondOfDay(sec));
+            s.open.put(row, rec);
+
+            for (Listener l : listeners) l.punchedIn(rec);
+            return rec;
+        }
+    }
+
+    /**
+     * Close the user's record for that date. Returns it, or null if there was
+     * no punch-in or it is already closed.
+     */
+    public AttendanceRecord punchOut(String username, LocalDate date, LocalTime time) {
+        return punchOut(username, date, time, 0);
+    }
+
+    /**
+     * punchOut with row flags (e.g. FLAG_AUTO_CLOSED when replaying an automatic close).
+     */
+    public AttendanceRecord punchOut(String username, LocalDate date, LocalTime time, int flags) {
+        int user = ids.find(username);
+        if (user < 0) return null;
+        int day = (int) date.toEpochDay();
+
+        Stripe s = stripeOf(user);
+        synchronized (s) {
+            Rows ur = s.byUser.get(user);
+            int pos = (ur == null) ? -1 : s.search(ur, day);
+            if (pos < 0) return null;
+            return close(s, ur.rows[pos], time.toSecondOfDay(), flags);
+        }
+    }
+
+    /**
+     * Close every open record from before 'today', and today's too once 'now'
+     * is past the cutoff (except ones punched in at or after the cutoff: they
+     * are still a live shift). The punch-out is set to the cutoff, or to the end
+     * of the day for an earlier day's record punched in after the cutoff, and
+     * the record is flagged for review. Works from each stripe's set of open
+     * rows, not from history. Returns the records closed.
+     */
+    public List<AttendanceRecord> autoClose(LocalDate today, LocalTime now, LocalTime cutoff) {
+        List<AttendanceRecord> closed = new ArrayList<>();
+        int todayDay = (int) today.toEpochDay();
+        int cutoffSec = cutoff.toSecondOfDay();
+        boolean todayDue = !now.isBefore(cutoff);
+
+        for (Stripe s : stripes) {
+            if (s.open.isEmpty()) continue;
+            synchronized (s) {
+                Columns c = s.cols;
+                for (Integer row : new ArrayList<>(s.open.keySet())) {
+                    int day = c.day[row];
+                    if (day > todayDay) continue;
+                    if (day == todayDay && (!todayDue || c.in[row] >= cutoffSec)) continue;
+
+                    int out = c.in[row] < cutoffSec ? cutoffSec : LAST_SECOND_OF_DAY;
+                    AttendanceRecord r = close(s, row, out, FLAG_AUTO_CLOSED);
+                    if (r != null) closed.add(r);
+                }
+            }
+        }
+        return closed;
+    }
+
+    // Caller holds the stripe lock
+    private AttendanceRecord close(Stripe s, int row, int sec, int flags) {
+        Columns c = s.cols;
+        if (c.out[row] != OPEN) return null;
+        c.out[row] = sec;
+        c.flags[row] = (byte) flags;
+        s.modCount++;
+
+        AttendanceRecord rec = s.open.remove(row);
+        if (rec == null) rec = materialize(c, row);
+        rec.setPunchOut(LocalTime.ofSecondOfDay(sec));
+        rec.setFlaggedForReview((flags & FLAG_AUTO_CLOSED) != 0);
+
+        for (Listener l : listeners) l.punchedOut(rec);
+        return rec;
+    }
+
+    public AttendanceRecord find(String username, LocalDate date) {
+        int user = ids.find(username);
+        if (user < 0) return null;
+
+        Stripe s = stripeOf(user);
+        synchronized (s) {
+            Rows ur = s.byUser.get(user);
+            int pos = (ur == null) ? -1 : s.search(ur, (int) date.toEpochDay());
+            return pos < 0 ? null : recordAt(s, s.cols, ur.rows[pos]);
+        }
+    }
+
+    // --------------------------------------------------
+    // Queries (cost grows with the number of matches, not with history)
+    // --------------------------------------------------
+
+    /**
+     * One employee's records between two dates (inclusive; null = open end), oldest first.
+     */
+    public List<AttendanceRecord> findByUser(String username, LocalDate from, LocalDate to) {
+        List<AttendanceRecord> result = new ArrayList<>();
+        int user = ids.find(username);
+        if (user < 0) return result;
+        int lo = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        int hi = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+
+        Stripe s = stripeOf(user);
+        synchronized (s) {
+            Rows ur = s.byUser.get(user);
+            if (ur == null) return result;
+
+            Columns c = s.cols;
+            int pos = s.search(ur, lo);
+            for (int i = pos >= 0 ? pos : -pos - 1; i < ur.size; i++) {
+                int row = ur.rows[i];
+                if (c.day[row] > hi) break;
+                result.add(recordAt(s, c, row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Everyone's records between two dates (inclusive), by date then punch-in.
+     */
+    public List<AttendanceRecord> findByDate(LocalDate from, LocalDate to) {
+        List<AttendanceRecord> result = new ArrayList<>();
+        int lo = (int) from.toEpochDay();
+        int hi = (int) to.toEpochDay();
+        if (lo > hi) return result;
+
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                Columns c = s.cols;
+                for (Rows day : s.byDay.subMap(lo, true, hi, true).values()) {
+                    for (int i = 0; i < day.size; i++) result.add(recordAt(s, c, day.rows[i]));
+                }
+            }
+        }
+        result.sort(CHRONOLOGICAL);
+        return result;
+    }
+
+    /**
+     * Everyone's records on days whose ISO date (yyyy-MM-dd) contains 'part',
+     * e.g. "03-14" or "-03-", by date then punch-in. Tests each distinct day of
+     * the day index once; rows are only read for days that match.
+     */
+    public List<AttendanceRecord> findByDateText(String part) {
+        List<AttendanceRecord> result = new ArrayList<>();
+        if (part == null || part.isEmpty()) return result;
+
+        Map<Integer, Boolean> tested = new HashMap<>();
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                Columns c = s.cols;
+                for (Map.Entry<Integer, Rows> e : s.byDay.entrySet()) {
+                    if (!tested.computeIfAbsent(e.getKey(), d -> LocalDate.ofEpochDay(d).toString().contains(part))) {
+                        continue;
+                    }
+                    Rows day = e.getValue();
+                    for (int i = 0; i < day.size; i++) result.add(recordAt(s, c, day.rows[i]));
+                }
+            }
+        }
+        result.sort(CHRONOLOGICAL);
+        return result;
+    }
+
+    /**
+     * Records carrying a row flag (e.g. FLAG_AUTO_CLOSED), oldest first. Lock-free column scan.
+     */
+    public List<AttendanceRecord> findFlagged(int flag) {
+        List<AttendanceRecord> result = new ArrayList<>();
+        for (Stripe s : stripes) {
+            long mod = s.modCount;   // volatile reads first (publishes punch-outs), then the arrays
+            int n = s.size;
+            Columns c = s.cols;
+            for (int row = 0; row < n; row++) {
+                if ((c.flags[row] & flag) != 0) result.add(materialize(c, row));
+            }
+        }
+        result.sort(CHRONOLOGICAL);
+        return result;
+    }
+
+    /**
+     * Every record, oldest first (by date, then punch-in). Lock-free copy:
+     * punches that land while it runs may or may not be included.
+     */
+    public List<AttendanceRecord> snapshot() {
+        List<AttendanceRecord> all = new ArrayList<>(size());
+        for (Stripe s : stripes) {
+            long mod = s.modCount;   // volatile reads first (publishes punch-outs), then the arrays
+            int n = s.size;
+            Columns c = s.cols;
+            for (int row = 0; row < n; row++) all.add(recordAt(s, c, row));
+        }
+        all.sort(CHRONOLOGICAL);
+        return all;
+    }
+
+    // --------------------------------------------------
+    // Columnar scans (no objects per row)
+    // --------------------------------------------------
+
+    public int stripeCount() {
+        return STRIPES;
+    }
+
+    /**
+     * Visit every row of one stripe (an employee's rows are all in one stripe).
+     * Lock-free; rows added while it runs may be missed.
+     */
+    public void scan(int stripe, RowVisitor visitor) {
+        Stripe s = stripes[stripe];
+        long mod = s.modCount;   // volatile reads first (publishes punch-outs), then the arrays
+        int n = s.size;
+        Columns c = s.cols;
+        for (int row = 0; row < n; row++) {
+            visitor.visit(c.user[row], c.day[row], c.in[row], c.out[row], c.flags[row]);
+        }
+    }
+
+    /**
+     * Visit one stripe's rows dated fromDay..toDay (epoch days, inclusive),
+     * walking only that range of its day index. Holds the stripe lock, so
+     * keep the visitor cheap.
+     */
+    public void scanDays(int stripe, int fromDay, int toDay, RowVisitor visitor) {
+        if (fromDay > toDay) return;
+
+        Stripe s = stripes[stripe];
+        synchronized (s) {
+            Columns c = s.cols;
+            for (Rows day : s.byDay.subMap(fromDay, true, toDay, true).values()) {
+                for (int i = 0; i < day.size; i++) {
+                    int row = day.rows[i];
+                    visitor.visit(c.user[row], c.day[row], c.in[row], c.out[row], c.flags[row]);
+                }
+            }
+        }
+    }
+
+    public void forEachRow(RowVisitor visitor) {
+        for (int i = 0; i < STRIPES; i++) scan(i, visitor);
+    }
+
+    public int size() {
+        int n = 0;
+        for (Stripe s : stripes) n += s.size;
+        return n;
+    }
+
+    private AttendanceRecord recordAt(Stripe s, Columns c, int row) {
+        if (c.out[row] == OPEN) {
+            AttendanceRecord live = s.open.get(row);
+            if (live != null) return live;
+        }
+        return materialize(c, row);
+    }
+
+    private AttendanceRecord materialize(Columns c, int row) {
+        AttendanceRecord r = new AttendanceRecord(ids.nameOf(c.user[row]),
+                LocalDate.ofEpochDay(c.day[row]), LocalTime.ofSecondOfDay(c.in[row]));
+        int out = c.out[row];
+        if (out != OPEN) r.setPunchOut(LocalTime.ofSecondOfDay(out));
+        r.setFlaggedForReview((c.flags[row] & FLAG_AUTO_CLOSED) != 0);
+        return r;
+    }
+
+    private Stripe stripeOf(int user) {
+        return stripes[user & (STRIPES - 1)];   // ids are dense: round-robin over stripes
+    }
+}
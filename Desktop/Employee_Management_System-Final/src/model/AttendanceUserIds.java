@@ -0,0 +1,177 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Username dictionary for attendance: each username gets a small int id
+ * (0, 1, 2, ... in order of first punch) so records can store an int instead
+ * of a String.
+ *
+ * When opened on a file, the dictionary is that file, one username per line
+ * (line number = id). A new name is written and forced before its id is
+ * handed out, so a journal record can never reference an id that was lost.
+ * A username containing a line break would shift every later id, so idOf
+ * refuses it.
+ *
+ * Names are also indexed by trigram (lower case) so a part of a name finds
+ * the matching names without looking at every one; parts shorter than three
+ * characters fall back to a scan.
+ */
+public final class AttendanceUserIds implements AutoCloseable {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private volatile int size = 0;
+
+    private final GroupCommitWriter writer;   // null: in memory only
+
+    // trigram -> ids whose lower-cased name contains it, ascending (guarded by itself)
+    private final Map<String, int[]> trigrams = new HashMap<>();
+
+    public AttendanceUserIds() {
+        this.writer = null;
+    }
+
+    private AttendanceUserIds(File file) throws IOException {
+        if (file.exists()) {
+            try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    add(line);   // blank lines keep their id slot so later ids stay aligned
+                }
+            }
+        }
+        this.writer = new GroupCommitWriter(file, GroupCommitWriter.FsyncPolicy.EVERY_BATCH, 0);
+    }
+
+    public static AttendanceUserIds open(File file) throws IOException {
+        return new AttendanceUserIds(file);
+    }
+
+    /**
+     * Id for this username, assigning (and persisting) a new one if needed.
+     * Throws IOException for a username that cannot be stored (line break).
+     */
+    public int idOf(String username) throws IOException {
+        Integer id = ids.get(username);
+        if (id != null) return id;
+
+        if (username.indexOf('\n') >= 0 || username.indexOf('\r') >= 0) {
+            throw new IOException("Username contains a line break; it cannot be given an attendance id");
+        }
+
+        synchronized (this) {
+            id = ids.get(username);
+            if (id != null) return id;
+
+            if (writer != null) {
+                GroupCommitWriter.await(writer.submit((username + "\n").getBytes(StandardCharsets.UTF_8)));
+            }
+            return add(username);
+        }
+    }
+
+    /**
+     * Id for this username, or -1 if it has never punched.
+     */
+    public int find(String username) {
+        Integer id = ids.get(username);
+        return id == null ? -1 : id;
+    }
+
+    public String nameOf(int id) {
+        return (id >= 0 && id < size) ? names[id] : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Names containing 'part', ignoring case, in id order.
+     */
+    public List<String> namesContaining(String part) {
+        List<String> result = new ArrayList<>();
+        if (part == null || part.isEmpty()) return result;
+        String p = part.toLowerCase(Locale.ROOT);
+
+        if (p.length() < 3) {
+            int n = size;
+            String[] all = names;
+            for (int id = 0; id < n; id++) {
+                if (all[id] != null && all[id].toLowerCase(Locale.ROOT).contains(p)) result.add(all[id]);
+            }
+            return result;
+        }
+
+        // Every match holds every trigram of p: confirm the shortest posting list
+        int[] candidates = null;
+        synchronized (trigrams) {
+            for (int i = 0; i + 3 <= p.length(); i++) {
+                int[] ids = trigrams.get(p.substring(i, i + 3));
+                if (ids == null) return result;
+                if (candidates == null || ids[0] < candidates[0]) candidates = ids;
+            }
+            candidates = Arrays.copyOf(candidates, candidates[0] + 1);
+        }
+        for (int i = 1; i <= candidates[0]; i++) {
+            String name = nameOf(candidates[i]);
+            if (name != null && name.toLowerCase(Locale.ROOT).contains(p)) result.add(name);
+        }
+        return result;
+    }
+
+    /**
+     * True if ids survive a restart (opened on a file).
+     */
+    public boolean isPersistent() {
+        return writer != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) writer.close();
+    }
+
+    // Caller holds the monitor (or is the constructor)
+    private int add(String username) {
+        int id = size;
+        if (id == names.length) names = Arrays.copyOf(names, id * 2);
+        names[id] = username;
+        ids.putIfAbsent(username, id);
+        index(id, username);
+        size = id + 1;
+        return id;
+    }
+
+    // Posting list layout: [count, id, id, ...]
+    private void index(int id, String username) {
+        String lower = username.toLowerCase(Locale.ROOT);
+        synchronized (trigrams) {
+            for (int i = 0; i + 3 <= lower.length(); i++) {
+                String gram = lower.substring(i, i + 3);
+                int[] list = trigrams.get(gram);
+                if (list == null) {
+                    list = new int[4];
+                } else if (list[list[0]] == id) {
+                    continue;   // same trigram twice in one name
+                } else if (list[0] + 1 == list.length) {
+                    list = Arrays.copyOf(list, list.length * 2);
+                }
+                list[++list[0]] = id;
+                trigrams.put(gram, list);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, time-limited memory of recent successful logins.
+ *
+ * A repeat login with the same password within the TTL is confirmed with one
+ * SHA-256 (keyed with a per-process random secret) instead of a full PBKDF2
+ * run. An entry only matches while the stored hash is unchanged, so a new
+ * password or a rehash makes it fall back to the full check.
+ *
+ * Size: -Dems.auth.cacheSize (default 1024); TTL: -Dems.auth.cacheTtlSeconds (default 900).
+ */
+final class AuthCache {
+
+    private static final class Entry {
+        final String stored;     // stored hash the login was verified against
+        final byte[] digest;     // keyed digest of the password that worked
+        final long expiresAt;
+
+        Entry(String stored, byte[] digest, long expiresAt) {
+            this.stored = stored;
+            this.digest = digest;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int capacity;
+    private final long ttlMillis;
+    private final byte[] secret = new byte[32];
+
+    // access order = LRU eviction
+    private final LinkedHashMap<String, Entry> entries;
+
+    AuthCache(int capacity, long ttlMillis) {
+        this.capacity = Math.max(0, capacity);
+        this.ttlMillis = ttlMillis;
+        new SecureRandom().nextBytes(secret);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > AuthCache.this.capacity;
+            }
+        };
+    }
+
+    static AuthCache fromSystemProperties() {
+        int size = Integer.getInteger("ems.auth.cacheSize", 1024);
+        long ttlSeconds = Long.getLong("ems.auth.cacheTtlSeconds", 900L);
+        return new AuthCache(size, ttlSeconds * 1000L);
+    }
+
+    synchronized boolean matches(String username, String stored, String password) {
+        String key = username.trim().toLowerCase();
+        Entry e = entries.get(key);
+        if (e == null) return false;
+
+        if (System.currentTimeMillis() > e.expiresAt || !e.stored.equals(stored)) {
+            entries.remove(key);
+            return false;
+        }
+        return MessageDigest.isEqual(e.digest, digest(key, password));
+    }
+
+    synchronized void remember(String username, String stored, String password) {
+        if (capacity == 0 || ttlMillis <= 0) return;
+        String key = username.trim().toLowerCase();
+        entries.put(key, new Entry(stored, digest(key, password), System.currentTimeMillis() + ttlMillis));
+    }
+
+    private byte[] digest(String key, String password) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(secret);
+            md.update(key.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(password.getBytes(StandardCharsets.UTF_8));
+            return md.digest();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary record log for user records.
+ *
+ * Record layout (big endian):
+ *   int   payloadLength
+ *   int   crc32 of (key + payload)
+ *   short keyLength
+ *   byte[keyLength]     username (UTF-8, exact case)
+ *   byte[payloadLength] JSON line (UTF-8)
+ *
+ * All writes go through one long-lived FileChannel. An in-memory
+ * username -> (offset, length) index makes a single-user read one positioned
+ * read. When superseded records take up more space than live ones, a
+ * compaction pass runs on a background thread and rewrites only live records.
+ *
+ * Appends are forced to disk per -Dems.users.fsync (same policy names as
+ * TextFileStorageEngine): batch forces every append before it returns,
+ * interval forces at most every -Dems.users.fsyncIntervalMs from the
+ * background thread, never leaves it to the OS. close() forces what is left.
+ */
+public class BinaryLogStorageEngine implements UserStorageEngine {
+
+    private static final int HEADER_SIZE = 4 + 4 + 2;
+
+    // Don't bother compacting tiny logs
+    private static final long DEFAULT_MIN_COMPACT_BYTES = 256 * 1024;
+
+    /**
+     * Where one live record sits in the log.
+     */
+    private static final class Slot {
+        final long offset;
+        final int length;   // whole record, header included
+
+        Slot(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final File file;
+    private final long minCompactBytes;
+    private final GroupCommitWriter.FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+
+    private FileChannel channel;
+    private long end;                 // next append position
+    private long deadBytes;           // bytes held by superseded records
+    private final Map<String, Slot> index = new HashMap<>();
+    private boolean unforced;         // appended since the last force()
+    private boolean closed;
+
+    // Compaction and interval fsyncs
+    private final ScheduledExecutorService background = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "user-log-background");
+        t.setDaemon(true);
+        return t;
+    });
+    private boolean compactionQueued = false;
+    private final Object compactLock = new Object();
+
+    public BinaryLogStorageEngine(File file) throws IOException {
+        this(file, DEFAULT_MIN_COMPACT_BYTES);
+    }
+
+    public BinaryLogStorageEngine(File file, long minCompactBytes) throws IOException {
+        this(file, minCompactBytes,
+             GroupCommitWriter.FsyncPolicy.parse(System.getProperty("ems.users.fsync"),
+                     GroupCommitWriter.FsyncPolicy.EVERY_BATCH),
+             Long.getLong("ems.users.fsyncIntervalMs", 200));
+    }
+
+    public BinaryLogStorageEngine(File file, long minCompactBytes,
+                                  GroupCommitWriter.FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) throws IOException {
+        this.file = file;
+        this.minCompactBytes = minCompactBytes;
+        this.fsyncPolicy = fsyncPolicy == null ? GroupCommitWriter.FsyncPolicy.EVERY_BATCH : fsyncPolicy;
+        this.fsyncIntervalMillis = Math.max(1, fsyncIntervalMillis);
+        open();
+
+        if (this.fsyncPolicy == GroupCommitWriter.FsyncPolicy.INTERVAL) {
+            background.scheduleWithFixedDelay(this::forceIfUnforced,
+                    this.fsyncIntervalMillis, this.fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // --------------------------------------------------
+    // UserStorageEngine
+    // --------------------------------------------------
+    @Override
+    public void append(String username, String jsonLine) throws IOException {
+        String key = keyOf(username);
+        ByteBuffer record = encode(key, jsonLine);
+
+        synchronized (this) {
+            if (closed) throw new IOException("User log closed: " + file);
+            long offset = end;
+            writeFully(channel, record, offset);
+            end = offset + record.capacity();
+
+            Slot old = index.put(key, new Slot(offset, record.capacity()));
+            if (old != null) deadBytes += old.length;
+
+            if (fsyncPolicy == GroupCommitWriter.FsyncPolicy.EVERY_BATCH) {
+                channel.force(false);
+            } else {
+                unforced = true;
+            }
+        }
+        maybeScheduleCompaction();
+    }
+
+    @Override
+    public synchronized String read(String username) throws IOException {
+        Slot slot = index.get(keyOf(username));
+        if (slot == null) {
+            // Case-insensitive fallback; with case variants ("Bob", "bob") any one of them
+            String wanted = keyOf(username);
+            for (Map.Entry<String, Slot> e : index.entrySet()) {
+                if (e.getKey().equalsIgnoreCase(wanted)) {
+                    slot = e.getValue();
+                    break;
+                }
+            }
+        }
+        if (slot == null) return null;
+
+        ByteBuffer buf = ByteBuffer.allocate(slot.length);
+        readFully(channel, buf, slot.offset);
+        buf.flip();
+        return decodePayload(buf);
+    }
+
+    /**
+     * Visits only live records (latest per username), in the order they were written.
+     */
+    @Override
+    public synchronized void forEachRecord(Consumer<String> visitor) throws IOException {
+        List<Slot> slots = new ArrayList<>(index.values());
+        slots.sort(Comparator.comparingLong(s -> s.offset));
+
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        for (Slot s : slots) {
+            if (buf.capacity() < s.length) buf = ByteBuffer.allocate(s.length);
+            buf.clear().limit(s.length);
+            readFully(channel, buf, s.offset);
+            buf.flip();
+            visitor.accept(decodePayload(buf));
+        }
+    }
+
+    @Override
+    public long sizeOnDisk() {
+        return file.length();
+    }
+
+    @Override
+    public long lastModified() {
+        return file.lastModified();
+    }
+
+    // --------------------------------------------------
+    // Import from users.txt
+    // --------------------------------------------------
+
+    /**
+     * Copy every line of an existing users.txt into this log.
+     * Returns the number of records imported.
+     */
+    public int importTextFile(File usersTxt) throws IOException {
+        int[] count = new int[1];
+        IOException[] failure = new IOException[1];
+
+        JsonLineParser.Fields f = AdminModel.userFields("username");
+        try (TextFileStorageEngine txt = new TextFileStorageEngine(usersTxt)) {
+            txt.forEachRecord(line -> {
+                if (failure[0] != null) return;
+                JsonLineParser.parse(line, f);
+                String username = f.get("username");
+                if (username == null || username.isBlank()) return;
+                try {
+                    append(username, line);
+                    count[0]++;
+                } catch (IOException ex) {
+                    failure[0] = ex;
+                }
+            });
+        }
+
+        if (failure[0] != null) throw failure[0];
+        return count[0];
+    }
+
+    public synchronized boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    // --------------------------------------------------
+    // Compaction
+    // --------------------------------------------------
+    private void maybeScheduleCompaction() {
+        synchronized (this) {
+            if (compactionQueued || closed) return;
+            if (deadBytes < minCompactBytes || deadBytes < end - deadBytes) return;
+            compactionQueued = true;
+        }
+        background.execute(() -> {
+            try {
+                compact();
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            } finally {
+                synchronized (this) {
+                    compactionQueued = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Rewrite the log keeping only live records.
+     *
+     * Live records are copied without holding the lock; records appended in the
+     * meantime are copied across in a short locked step before the files are swapped.
+     */
+    @Override
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            compactLocked();
+        }
+    }
+
+    private void compactLocked() throws IOException {
+        List<Map.Entry<String, Slot>> live;
+        FileChannel src;
+        long copiedUpTo;
+        synchronized (this) {
+            live = new ArrayList<>(index.entrySet());
+            src = channel;
+            copiedUpTo = end;
+        }
+        live.sort(Comparator.comparingLong(e -> e.getValue().offset));
+
+        File tmp = new File(file.getPath() + ".compact");
+        Map<String, Slot> newIndex = new HashMap<>();
+
+        try (FileChannel dst = FileChannel.open(tmp.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+
+            long pos = 0;
+            for (Map.Entry<String, Slot> e : live) {
+                Slot s = e.getValue();
+                transferFully(src, s.offset, s.length, dst);
+                newIndex.put(e.getKey(), new Slot(pos, s.length));
+                pos += s.length;
+            }
+
+            synchronized (this) {
+                // Tail written while we were copying
+                long newDead = 0;
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                long at = copiedUpTo;
+                while (at < end) {
+                    header.clear();
+                    readFully(channel, header, at);
+                    header.flip();
+                    int payloadLen = header.getInt();
+                    header.getInt();
+                    int keyLen = header.getShort() & 0xFFFF;
+                    int len = HEADER_SIZE + keyLen + payloadLen;
+
+                    ByteBuffer keyBuf = ByteBuffer.allocate(keyLen);
+                    readFully(channel, keyBuf, at + HEADER_SIZE);
+                    String key = new String(keyBuf.array(), StandardCharsets.UTF_8);
+
+                    transferFully(channel, at, len, dst);
+                    Slot old = newIndex.put(key, new Slot(pos, len));
+                    if (old != null) newDead += old.length;
+                    pos += len;
+                    at += len;
+                }
+                dst.force(true);
+
+                channel.close();
+                Files.move(tmp.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+                index.clear();
+                index.putAll(newIndex);
+                end = pos;
+                deadBytes = newDead;
+                unforced = false;   // dst was forced above
+            }
+        }
+    }
+
+    /**
+     * Force whatever the fsync policy is still holding, stop the background
+     * thread (letting a running compaction finish) and close the log.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;   // no new appends or compactions from here
+        }
+        background.shutdown();
+        try {
+            background.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            channel.force(true);
+            channel.close();
+            unforced = false;
+        }
+    }
+
+    private void forceIfUnforced() {
+        synchronized (this) {
+            if (!unforced || closed) return;
+            try {
+                channel.force(false);
+                unforced = false;
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    // --------------------------------------------------
+    // Opening / recovery
+    // --------------------------------------------------
+    private synchronized void open() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        index.clear();
+        deadBytes = 0;
+
+        long size = channel.size();
+        long at = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        JsonLineParser.Fields usernameFields = AdminModel.userFields("username");
+        while (at + HEADER_SIZE <= size) {
+            header.clear();
+            readFully(channel, header, at);
+            header.flip();
+            int payloadLen = header.getInt();
+            int crc = header.getInt();
+            int keyLen = header.getShort() & 0xFFFF;
+            if (payloadLen < 0 || at + HEADER_SIZE + keyLen + payloadLen > size) break;
+
+            ByteBuffer body = ByteBuffer.allocate(keyLen + payloadLen);
+            readFully(channel, body, at + HEADER_SIZE);
+            if (crcOf(body.array(), 0, body.capacity()) != crc) break;
+
+            // Key from the record itself: logs written before keys kept their case
+            // stored "Bob" and "bob" under one lowercase key
+            String key = usernameOf(new String(body.array(), keyLen, payloadLen, StandardCharsets.UTF_8), usernameFields);
+            if (key == null) key = new String(body.array(), 0, keyLen, StandardCharsets.UTF_8);
+            int len = HEADER_SIZE + keyLen + payloadLen;
+            Slot old = index.put(key, new Slot(at, len));
+            if (old != null) deadBytes += old.length;
+            at += len;
+        }
+
+        // Drop a torn record left by a crash mid-write
+        if (at < size) {
+            channel.truncate(at);
+        }
+        end = at;
+    }
+
+    // --------------------------------------------------
+    // Encoding helpers
+    // --------------------------------------------------
+    // Exact username: names that differ only in case are different users
+    private static String keyOf(String username) {
+        return username == null ? "" : username.trim();
+    }
+
+    private static String usernameOf(String jsonLine, JsonLineParser.Fields f) {
+        JsonLineParser.parse(jsonLine, f);
+        String u = f.get("username");
+        return (u == null || u.isBlank()) ? null : keyOf(u);
+    }
+
+    private static ByteBuffer encode(String key, String jsonLine) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        byte[] p = (jsonLine == null ? "" : jsonLine).getBytes(StandardCharsets.UTF_8);
+        if (k.length > 0xFFFF) {
+            throw new IllegalArgumentException("Username too long");
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + k.length + p.length);
+        buf.putInt(p.length);
+        buf.putInt(0); // crc placeholder
+        buf.putShort((short) k.length);
+        buf.put(k);
+        buf.put(p);
+        buf.putInt(4, crcOf(buf.array(), HEADER_SIZE, k.length + p.length));
+        buf.flip();
+        return buf;
+    }
+
+    private static String decodePayload(ByteBuffer record) {
+        int payloadLen = record.getInt(0);
+        int keyLen = record.getShort(8) & 0xFFFF;
+        return new String(record.array(), record.arrayOffset() + HEADER_SIZE + keyLen,
+                payloadLen, StandardCharsets.UTF_8);
+    }
+
+    private static int crcOf(byte[] data, int off, int len) {
+        CRC32 crc = new CRC32();
+        crc.update(data, off, len);
+        return (int) crc.getValue();
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        long pos = position;
+        while (buf.hasRemaining()) {
+            pos += ch.write(buf, pos);
+        }
+    }
+
+    private static void transferFully(FileChannel src, long position, long count, FileChannel dst) throws IOException {
+        long done = 0;
+        while (done < count) {
+            long n = src.transferTo(position + done, count - done, dst);
+            if (n <= 0) throw new IOException("Unexpected end of user log");
+            done += n;
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        long pos = position;
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos);
+            if (n < 0) throw new IOException("Unexpected end of user log");
+            pos += n;
+        }
+    }
+
+}
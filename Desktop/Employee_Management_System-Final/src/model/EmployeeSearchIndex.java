@@ -0,0 +1,193 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Search index over the employee directory.
+ *
+ *  - name prefix: sorted map of lower-cased full names
+ *  - substring:   trigram postings over name, username, email and department;
+ *                 a query's trigrams are intersected and the few candidates
+ *                 left are confirmed with contains()
+ *
+ * Queries shorter than three characters have no trigram to look up and fall
+ * back to a scan of the precomputed lower-case fields.
+ *
+ * Employees are only ever appended (doc id = position); replacing a username
+ * (exact case) marks the old doc dead. Not thread-safe: UserDirectory guards it.
+ */
+final class EmployeeSearchIndex {
+
+    // Growable int list for postings (doc ids are appended in increasing order)
+    private static final class IntList {
+        int[] a = new int[4];
+        int size = 0;
+
+        void add(int v) {
+            if (size > 0 && a[size - 1] == v) return; // same doc twice
+            if (size == a.length) a = Arrays.copyOf(a, size * 2);
+            a[size++] = v;
+        }
+    }
+
+    private final List<Employee> docs = new ArrayList<>();
+    private final List<String[]> docFields = new ArrayList<>();   // lower-cased name, username, email, department
+    private final BitSet dead = new BitSet();
+    private int deadCount = 0;
+
+    private final Map<String, Integer> docByUsername = new HashMap<>();   // exact username ("Bob" and "bob" are two people)
+    private final TreeMap<String, IntList> byName = new TreeMap<>();
+    private final Map<String, IntList> trigrams = new HashMap<>();
+
+    void clear() {
+        docs.clear();
+        docFields.clear();
+        dead.clear();
+        deadCount = 0;
+        docByUsername.clear();
+        byName.clear();
+        trigrams.clear();
+    }
+
+    /**
+     * Add an employee, replacing any earlier one with the same username.
+     */
+    void add(Employee e) {
+        if (e == null) return;
+        String userKey = lower(e.getUsername());
+
+        String exact = e.getUsername() == null ? "" : e.getUsername().trim();
+        Integer old = docByUsername.get(exact);
+        if (old != null && !dead.get(old)) {
+            dead.set(old);
+            deadCount++;
+        }
+
+        int id = docs.size();
+        String[] f = { lower(e.getFullName()), userKey, lower(e.getEmail()), lower(e.getDepartment()) };
+        docs.add(e);
+        docFields.add(f);
+        docByUsername.put(exact, id);
+
+        byName.computeIfAbsent(f[0], k -> new IntList()).add(id);
+        for (String field : f) {
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                trigrams.computeIfAbsent(field.substring(i, i + 3), k -> new IntList()).add(id);
+            }
+        }
+
+        // Too much garbage from replacements: start over with live docs only
+        if (deadCount > 1024 && deadCount > docs.size() / 2) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Drop the employee with this username (if any).
+     */
+    void remove(String username) {
+        Integer old = docByUsername.remove(username == null ? "" : username.trim());
+        if (old != null && !dead.get(old)) {
+            dead.set(old);
+            deadCount++;
+        }
+    }
+
+    /**
+     * Employees whose name starts with the query first, then any other employee
+     * with the query inside name, username, email or department; each group
+     * ordered by name.
+     */
+    List<Employee> search(String query) {
+        List<Employee> result = new ArrayList<>();
+        if (query == null || query.isBlank()) return result;
+        String q = query.trim().toLowerCase(Locale.ROOT);
+
+        // 1) name prefix hits, already in name order
+        BitSet seen = new BitSet();
+        for (IntList ids : byName.subMap(q, true, q + Character.MAX_VALUE, false).values()) {
+            for (int i = 0; i < ids.size; i++) {
+                int id = ids.a[i];
+                if (!dead.get(id) && !seen.get(id)) {
+                    seen.set(id);
+                    result.add(docs.get(id));
+                }
+            }
+        }
+
+        // 2) other substring hits
+        List<Integer> more = new ArrayList<>();
+        if (q.length() >= 3) {
+            for (int id : candidates(q)) {
+                if (!seen.get(id) && !dead.get(id) && matches(id, q)) more.add(id);
+            }
+        } else {
+            for (int id = 0; id < docs.size(); id++) {
+                if (!seen.get(id) && !dead.get(id) && matches(id, q)) more.add(id);
+            }
+        }
+        more.sort((x, y) -> {
+            int c = docFields.get(x)[0].compareTo(docFields.get(y)[0]);
+            return c != 0 ? c : Integer.compare(x, y);
+        });
+        for (int id : more) result.add(docs.get(id));
+
+        return result;
+    }
+
+    // Intersection of the postings of every trigram in q (smallest list first)
+    private int[] candidates(String q) {
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            IntList p = trigrams.get(q.substring(i, i + 3));
+            if (p == null) return new int[0];
+            lists.add(p);
+        }
+        lists.sort((x, y) -> Integer.compare(x.size, y.size));
+
+        int[] cur = Arrays.copyOf(lists.get(0).a, lists.get(0).size);
+        int n = cur.length;
+        for (int k = 1; k < lists.size() && n > 0; k++) {
+            IntList other = lists.get(k);
+            int i = 0, j = 0, m = 0;
+            while (i < n && j < other.size) {
+                if (cur[i] < other.a[j]) i++;
+                else if (cur[i] > other.a[j]) j++;
+                else {
+                    cur[m++] = cur[i];
+                    i++;
+                    j++;
+                }
+            }
+            n = m;
+        }
+        return Arrays.copyOf(cur, n);
+    }
+
+    private boolean matches(int id, String q) {
+        for (String field : docFields.get(id)) {
+            if (field.contains(q)) return true;
+        }
+        return false;
+    }
+
+    private void rebuild() {
+        List<Employee> live = new ArrayList<>(docs.size() - deadCount);
+        for (int id = 0; id < docs.size(); id++) {
+            if (!dead.get(id)) live.add(docs.get(id));
+        }
+        clear();
+        for (Employee e : live) add(e);
+    }
+
+    private static String lower(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+}
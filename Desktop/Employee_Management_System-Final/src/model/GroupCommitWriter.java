@@ -0,0 +1,290 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit appender for one file.
+ *
+ * Callers submit records and get a future back. A single background thread
+ * drains whatever has queued up, writes it to one long-lived FileChannel with
+ * a single gathering write, and completes the futures once the batch is as
+ * durable as the fsync policy asks for:
+ *
+ *   EVERY_BATCH - force() after every batch, then complete
+ *   INTERVAL    - force() at most every fsyncIntervalMillis; futures complete after that force()
+ *   NEVER       - complete as soon as the batch is written (OS decides when it hits disk)
+ *
+ * Each future completes with the file offset the record was written at.
+ *
+ * The worker thread starts with the first submit() or flush(). Submitting
+ * after close() fails the future straight away; nothing is left waiting.
+ */
+public class GroupCommitWriter implements AutoCloseable {
+
+    public enum FsyncPolicy {
+        EVERY_BATCH,
+        INTERVAL,
+        NEVER;
+
+        /**
+         * Parse "batch" / "interval" / "never" (case-insensitive); anything else gives the fallback.
+         */
+        public static FsyncPolicy parse(String s, FsyncPolicy fallback) {
+            if (s == null) return fallback;
+            switch (s.trim().toLowerCase()) {
+                case "batch":
+                case "every_batch": return EVERY_BATCH;
+                case "interval":    return INTERVAL;
+                case "never":       return NEVER;
+                default:            return fallback;
+            }
+        }
+    }
+
+    private static final int MAX_BATCH = 1024;
+
+    private static final class Pending {
+        final ByteBuffer data;
+        final CompletableFuture<Long> done = new CompletableFuture<>();
+        long offset;
+
+        Pending(ByteBuffer data) {
+            this.data = data;
+        }
+    }
+
+    private final File file;
+    private final FsyncPolicy policy;
+    private final long fsyncIntervalMillis;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    // closed is only set, and the queue only added to, under stateLock, so a
+    // record is either queued before close() or refused; never stranded
+    private final Object stateLock = new Object();
+    private Thread worker;                 // started on first use
+    private volatile boolean closed = false;
+
+    private FileChannel channel;
+
+    // Written but not yet forced (INTERVAL policy)
+    private final List<Pending> awaitingSync = new ArrayList<>();
+    private long lastSync = System.currentTimeMillis();
+
+    public GroupCommitWriter(File file, FsyncPolicy policy, long fsyncIntervalMillis) {
+        this.file = file;
+        this.policy = policy == null ? FsyncPolicy.EVERY_BATCH : policy;
+        this.fsyncIntervalMillis = Math.max(1, fsyncIntervalMillis);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public FsyncPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Queue one record; it is appended exactly as given.
+     */
+    public CompletableFuture<Long> submit(byte[] record) {
+        return submit(ByteBuffer.wrap(record));
+    }
+
+    public CompletableFuture<Long> submit(ByteBuffer record) {
+        Pending p = new Pending(record);
+        if (!enqueue(p)) {
+            p.done.completeExceptionally(new IOException("Writer closed: " + file));
+        }
+        return p.done;
+    }
+
+    /**
+     * Block until every record submitted before this call is written
+     * (and forced, unless the policy is NEVER).
+     */
+    public void flush() throws IOException {
+        Pending marker = new Pending(ByteBuffer.allocate(0));
+        if (!enqueue(marker)) return;   // closed: close() already wrote everything
+        await(marker.done);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (stateLock) {
+            if (closed) return;
+            if (worker == null) {      // never used, no thread to stop
+                closed = true;
+                return;
+            }
+        }
+        flush();
+
+        Thread w;
+        synchronized (stateLock) {
+            if (closed) return;
+            closed = true;
+            w = worker;
+            queue.add(new Pending(ByteBuffer.allocate(0))); // wake the worker so it can exit
+        }
+        try {
+            w.join(5000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Queue a record unless closed, starting the worker on first use
+    private boolean enqueue(Pending p) {
+        synchronized (stateLock) {
+            if (closed) return false;
+            if (worker == null) {
+                worker = new Thread(this::run, "group-commit-" + file.getName());
+                worker.setDaemon(true);
+                worker.start();
+            }
+            queue.add(p);
+            return true;
+        }
+    }
+
+    /**
+     * Wait for a future from submit(), unwrapping the IOException if it failed.
+     */
+    public static <T> T await(CompletableFuture<T> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for write", ex);
+        } catch (java.util.concurrent.ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException io) throw io;
+            throw new IOException(cause);
+        }
+    }
+
+    // --------------------------------------------------
+    // Worker
+    // --------------------------------------------------
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(pollTimeout(), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+                syncIfDue(false);
+            } catch (InterruptedException ex) {
+                if (closed) break;
+            }
+        }
+        syncIfDue(true);
+        closeChannel();
+
+        // Only reachable with items left if the loop was broken off; don't leave callers hanging
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        for (Pending p : left) {
+            p.done.completeExceptionally(new IOException("Writer closed: " + file));
+        }
+    }
+
+    private long pollTimeout() {
+        if (policy != FsyncPolicy.INTERVAL || awaitingSync.isEmpty()) return 1000;
+        long wait = lastSync + fsyncIntervalMillis - System.currentTimeMillis();
+        return Math.max(1, wait);
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        try {
+            FileChannel ch = channel();
+            long offset = ch.size();
+
+            ByteBuffer[] bufs = new ByteBuffer[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                Pending p = batch.get(i);
+                p.offset = offset;
+                offset += p.data.remaining();
+                bufs[i] = p.data;
+            }
+
+            long remaining = offset - ch.size();
+            while (remaining > 0) {
+                remaining -= ch.write(bufs);
+            }
+
+            switch (policy) {
+                case EVERY_BATCH:
+                    ch.force(false);
+                    lastSync = System.currentTimeMillis();
+                    completeAll(batch);
+                    break;
+                case INTERVAL:
+                    awaitingSync.addAll(batch);
+                    break;
+                case NEVER:
+                default:
+                    completeAll(batch);
+            }
+        } catch (IOException ex) {
+            for (Pending p : batch) p.done.completeExceptionally(ex);
+            closeChannel(); // reopen on the next batch
+        }
+    }
+
+    private void syncIfDue(boolean force) {
+        if (awaitingSync.isEmpty()) return;
+        if (!force && System.currentTimeMillis() - lastSync < fsyncIntervalMillis) return;
+
+        try {
+            channel().force(false);
+            lastSync = System.currentTimeMillis();
+            completeAll(awaitingSync);
+        } catch (IOException ex) {
+            for (Pending p : awaitingSync) p.done.completeExceptionally(ex);
+        }
+        awaitingSync.clear();
+    }
+
+    private static void completeAll(List<Pending> list) {
+        for (Pending p : list) p.done.complete(p.offset);
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        channel = null;
+    }
+}
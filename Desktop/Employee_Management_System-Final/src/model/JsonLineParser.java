@@ -0,0 +1,472 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass tokenizer for the one-object-per-line format used in users.txt.
+ *
+ * One sweep over the line records where each wanted key's value starts and ends;
+ * nothing is copied until Fields.get() is called for that key. Standard JSON
+ * escapes (\" \\ \/ \b \f \n \r \t \\uXXXX) are decoded. Works on a String line
+ * or in place on a byte range of a (mapped) buffer: every structural character
+ * is ASCII, so UTF-8 bytes can be scanned without decoding. For byte input no
+ * String is built for the line itself; only the bytes of a value asked for
+ * with Fields.get() are copied and decoded.
+ *
+ * Versioned Fields (Fields.versioned) also read lines written before escaping
+ * was complete: the old writer turned '"' into \" and left '\\' as is. In a
+ * line that does not start with the version key, \" is the only escape (a
+ * quote inside the value) and every other backslash is taken as written. A
+ * \" that is followed by the end of the object or by the next "key": closes
+ * the value instead (the value ended in a backslash).
+ */
+public final class JsonLineParser {
+
+    /**
+     * Value positions for a fixed set of keys, filled by parse().
+     * Reusable: each parse() call clears the previous line.
+     */
+    public static final class Fields {
+        private final String[] keys;
+        private final int[] from;
+        private final int[] to;
+        private final boolean[] quoted;
+        private final boolean[] escaped;
+
+        // Versioned mode: lines without this first key are legacy (see class comment)
+        private final String versionKey;
+        private final String[] legacyNeedles;   // "key":" per key
+        private boolean legacy;
+
+        // The line as scanned: a String, or the UTF-8 bytes [base, base + length)
+        // of a buffer, read in place. Positions are chars or byte offsets from base.
+        private String text;
+        private ByteBuffer buf;
+        private int base;
+        private int length;
+        private byte[] scratch;      // copy target when a byte value is decoded
+        private ByteBuffer wrapped;  // last array given to parse(byte[]...), reused for the same array
+        private int nextBackslash;   // position of the next '\\', or -1
+
+        public Fields(String... keys) {
+            this(null, keys);
+        }
+
+        private Fields(String versionKey, String[] keys) {
+            this.keys = keys.clone();
+            this.from = new int[keys.length];
+            this.to = new int[keys.length];
+            this.quoted = new boolean[keys.length];
+            this.escaped = new boolean[keys.length];
+            this.versionKey = versionKey;
+            this.legacyNeedles = new String[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                legacyNeedles[i] = "\"" + keys[i] + "\":\"";
+            }
+            clear();
+        }
+
+        /**
+         * Fields for records whose current format starts with versionKey;
+         * lines without it are read with the legacy rules.
+         */
+        public static Fields versioned(String versionKey, String... keys) {
+            return new Fields(versionKey, keys);
+        }
+
+        /**
+         * True if the last line parsed was read with the legacy rules.
+         */
+        public boolean isLegacy() {
+            return legacy;
+        }
+
+        /**
+         * Decoded value, or null if the key was not on the line (or is JSON null).
+         */
+        public String get(String key) {
+            int k = slotOf(key);
+            if (k < 0 || from[k] < 0) return null;
+
+            String raw = slice(from[k], to[k]);
+            if (!quoted[k]) {
+                return "null".equals(raw) ? null : raw;
+            }
+            if (!escaped[k]) return raw;
+            return legacy ? raw.replace("\\\"", "\"") : unescape(raw);
+        }
+
+        public boolean has(String key) {
+            int k = slotOf(key);
+            return k >= 0 && from[k] >= 0;
+        }
+
+        private void clear() {
+            buf = null;
+            legacy = false;
+            for (int i = 0; i < keys.length; i++) {
+                from[i] = -1;
+                to[i] = -1;
+                quoted[i] = false;
+                escaped[i] = false;
+            }
+            text = null;
+        }
+
+        private int slotOf(String key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) return i;
+            }
+            return -1;
+        }
+
+        private String slice(int start, int end) {
+            if (text != null) return text.substring(start, end);
+            int len = end - start;
+            if (scratch == null || scratch.length < len) scratch = new byte[Math.max(len, 64)];
+            buf.get(base + start, scratch, 0, len);
+            return new String(scratch, 0, len, StandardCharsets.UTF_8);
+        }
+
+        private int charAt(int i) {
+            return text != null ? text.charAt(i) : buf.get(base + i) & 0xFF;
+        }
+
+        // Next position of an ASCII character at or after 'from', or -1
+        private int indexOf(int c, int from) {
+            if (text != null) return text.indexOf(c, from);
+            int at = JsonLineParser.indexOf(buf, base + from, base + length, (byte) c);
+            return at < 0 ? -1 : at - base;
+        }
+
+        // Does the source hold 's' (ASCII) at position i?
+        private boolean regionMatches(int i, String s) {
+            int n = s.length();
+            if (text != null) return text.regionMatches(i, s, 0, n);
+            if (i < 0 || i + n > length) return false;
+            for (int j = 0; j < n; j++) {
+                if (buf.get(base + i + j) != (byte) s.charAt(j)) return false;
+            }
+            return true;
+        }
+
+        private int indexOf(String needle, int from) {
+            int p = indexOf(needle.charAt(0), from);
+            while (p >= 0 && !regionMatches(p, needle)) p = indexOf(needle.charAt(0), p + 1);
+            return p;
+        }
+
+        // Which wanted key (if any) spans [start, end) of the source, without allocating
+        private int matchKey(int start, int end) {
+            int len = end - start;
+            for (int k = 0; k < keys.length; k++) {
+                if (keys[k].length() == len && regionMatches(start, keys[k])) return k;
+            }
+            return -1;
+        }
+    }
+
+    private JsonLineParser() {
+    }
+
+    /**
+     * Parse one line. Returns false if the line is not a well-formed flat object;
+     * fields read before the problem are still available.
+     */
+    public static boolean parse(String line, Fields into) {
+        into.clear();
+        if (line == null) return false;
+        into.text = line;
+        into.length = line.length();
+        into.nextBackslash = line.indexOf('\\');
+        return scanLine(into, line.length());
+    }
+
+    /**
+     * Parse bytes [start, end) of a buffer holding UTF-8 text (e.g. a mapped
+     * file), in place. The bytes must not change until the values have been
+     * read with Fields.get().
+     */
+    public static boolean parse(ByteBuffer buf, int start, int end, Fields into) {
+        into.clear();
+        into.buf = buf;
+        into.base = start;
+        into.length = end - start;
+        into.nextBackslash = into.indexOf('\\', 0);
+        return scanLine(into, end - start);
+    }
+
+    /**
+     * Parse bytes [start, end) of an array holding UTF-8 text. The array must
+     * not change until the values have been read with Fields.get().
+     */
+    public static boolean parse(byte[] buf, int start, int end, Fields into) {
+        if (into.wrapped == null || into.wrapped.array() != buf) into.wrapped = ByteBuffer.wrap(buf);
+        return parse(into.wrapped, start, end, into);
+    }
+
+    /**
+     * First index of 'target' in [from, to) of the buffer, or -1. Reads eight
+     * bytes at a time (SWAR): a get() per byte costs far more on a mapping.
+     */
+    static int indexOf(ByteBuffer b, int from, int to, byte target) {
+        long pattern = (target & 0xFFL) * 0x0101010101010101L;
+        boolean bigEndian = b.order() == ByteOrder.BIG_ENDIAN;
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long w = b.getLong(i);
+            if (bigEndian) w = Long.reverseBytes(w);   // lowest address in the low byte
+            long x = w ^ pattern;
+            // High bit set in each zero byte of x; a false hit can only follow a true one
+            long hit = (x - 0x0101010101010101L) & ~x & 0x8080808080808080L;
+            if (hit != 0) return i + (Long.numberOfTrailingZeros(hit) >>> 3);
+        }
+        for (; i < to; i++) {
+            if (b.get(i) == target) return i;
+        }
+        return -1;
+    }
+
+    private static boolean scanLine(Fields f, int end) {
+        if (f.versionKey != null && !startsWithKey(f, f.versionKey, end)) {
+            f.legacy = true;
+            return scanLegacy(f, end);
+        }
+        return scan(f, 0, end);
+    }
+
+    // Is 'key' the first key of the object?
+    private static boolean startsWithKey(Fields f, String key, int end) {
+        int i = skipSpace(f, 0, end);
+        if (i >= end || f.charAt(i) != '{') return false;
+        i = skipSpace(f, i + 1, end);
+        int close = i + 1 + key.length();
+        return close < end && f.charAt(i) == '"'
+                && f.regionMatches(i + 1, key)
+                && f.charAt(close) == '"';
+    }
+
+    // Legacy line: find "key":" anywhere (as the old reader did), value runs to its closing quote
+    private static boolean scanLegacy(Fields f, int end) {
+        for (int k = 0; k < f.keys.length; k++) {
+            String needle = f.legacyNeedles[k];
+            int at = f.indexOf(needle, 0);
+            if (at < 0 || at >= end) continue;
+            int valueStart = at + needle.length();
+            int valueEnd = endOfLegacyString(f, valueStart, end);
+            if (valueEnd < 0) continue;
+            f.from[k] = valueStart;
+            f.to[k] = valueEnd;
+            f.quoted[k] = true;
+            f.escaped[k] = hasEscapedQuote(f, valueStart, valueEnd);
+        }
+        return true;
+    }
+
+    // Any \" inside [from, to)?
+    private static boolean hasEscapedQuote(Fields f, int from, int to) {
+        int b = f.indexOf('\\', from);
+        while (b >= 0 && b + 1 < to) {
+            if (f.charAt(b + 1) == '"') return true;
+            b = f.indexOf('\\', b + 1);
+        }
+        return false;
+    }
+
+    // Closing quote of a legacy value: the first '"' not written as \", or a \"
+    // that the object clearly goes on from (the value ended in a backslash)
+    private static int endOfLegacyString(Fields f, int from, int end) {
+        int i = from;
+        while (true) {
+            int q = f.indexOf('"', i);
+            if (q < 0 || q >= end) return -1;
+            if (q == from || f.charAt(q - 1) != '\\' || closesLegacyValue(f, q + 1, end)) return q;
+            i = q + 1;
+        }
+    }
+
+    // Does the object continue at 'i' as if a value just ended: '}' at the end, or , "key":
+    private static boolean closesLegacyValue(Fields f, int i, int end) {
+        i = skipSpace(f, i, end);
+        if (i >= end) return true;
+        if (f.charAt(i) == '}') return skipSpace(f, i + 1, end) >= end;
+        if (f.charAt(i) != ',') return false;
+
+        i = skipSpace(f, i + 1, end);
+        if (i >= end || f.charAt(i) != '"') return false;
+        int k = i + 1;
+        while (k < end && Character.isLetterOrDigit(f.charAt(k))) k++;
+        if (k == i + 1 || k >= end || f.charAt(k) != '"') return false;
+        k = skipSpace(f, k + 1, end);
+        return k < end && f.charAt(k) == ':';
+    }
+
+    private static boolean scan(Fields f, int start, int end) {
+        int i = skipSpace(f, start, end);
+        if (i >= end || f.charAt(i) != '{') return false;
+        i = skipSpace(f, i + 1, end);
+        if (i < end && f.charAt(i) == '}') return true;
+
+        while (i < end) {
+            // "key"
+            if (f.charAt(i) != '"') return false;
+            int keyStart = i + 1;
+            int keyEnd = endOfString(f, keyStart, end);
+            if (keyEnd < 0) return false;
+            int slot = f.matchKey(keyStart, keyEnd);
+
+            // :
+            i = skipSpace(f, keyEnd + 1, end);
+            if (i >= end || f.charAt(i) != ':') return false;
+            i = skipSpace(f, i + 1, end);
+            if (i >= end) return false;
+
+            // value
+            if (f.charAt(i) == '"') {
+                int valueStart = i + 1;
+                int valueEnd = endOfString(f, valueStart, end);
+                if (valueEnd < 0) return false;
+                if (slot >= 0) {
+                    f.from[slot] = valueStart;
+                    f.to[slot] = valueEnd;
+                    f.quoted[slot] = true;
+                    f.escaped[slot] = hasBackslash(f, valueStart, valueEnd);
+                }
+                i = valueEnd + 1;
+            } else {
+                // number / true / false / null
+                int valueStart = i;
+                while (i < end) {
+                    int c = f.charAt(i);
+                    if (c == ',' || c == '}' || isSpace(c)) break;
+                    i++;
+                }
+                if (slot >= 0) {
+                    f.from[slot] = valueStart;
+                    f.to[slot] = i;
+                }
+            }
+
+            // , or }
+            i = skipSpace(f, i, end);
+            if (i >= end) return false;
+            int c = f.charAt(i);
+            if (c == '}') return true;
+            if (c != ',') return false;
+            i = skipSpace(f, i + 1, end);
+        }
+        return false;
+    }
+
+    // Index of the closing quote of a string starting at 'from', or -1.
+    // Jumps between quotes with indexOf (String intrinsic or SWAR); a quote is
+    // closing when it follows an even run of backslashes.
+    private static int endOfString(Fields f, int from, int end) {
+        int i = from;
+        while (true) {
+            int q = f.indexOf('"', i);
+            if (q < 0 || q >= end) return -1;
+
+            int b = q - 1;
+            while (b >= from && f.charAt(b) == '\\') b--;
+            if (((q - 1 - b) & 1) == 0) return q;
+            i = q + 1;
+        }
+    }
+
+    private static boolean hasBackslash(Fields f, int from, int to) {
+        // Next backslash at or after 'from', found at most once per backslash
+        if (f.nextBackslash >= 0 && f.nextBackslash < from) f.nextBackslash = f.indexOf('\\', from);
+        return f.nextBackslash >= 0 && f.nextBackslash < to;
+    }
+
+    private static int skipSpace(Fields f, int i, int end) {
+        while (i < end && isSpace(f.charAt(i))) i++;
+        return i;
+    }
+
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    // --------------------------------------------------
+    // Escaping
+    // --------------------------------------------------
+
+    /**
+     * Decode JSON string escapes. Unknown escapes are kept as written.
+     */
+    static String unescape(String raw) {
+        StringBuilder sb = new StringBuilder(raw.length());
+        int n = raw.length();
+        for (int i = 0; i < n; i++) {
+            char c = raw.charAt(i);
+            if (c != '\\' || i + 1 >= n) {
+                sb.append(c);
+                continue;
+            }
+            char e = raw.charAt(++i);
+            switch (e) {
+                case '"':  sb.append('"'); break;
+                case '\\': sb.append('\\'); break;
+                case '/':  sb.append('/'); break;
+                case 'b':  sb.append('\b'); break;
+                case 'f':  sb.append('\f'); break;
+                case 'n':  sb.append('\n'); break;
+                case 'r':  sb.append('\r'); break;
+                case 't':  sb.append('\t'); break;
+                case 'u':
+                    if (i + 4 < n) {
+                        try {
+                            sb.append((char) Integer.parseInt(raw.substring(i + 1, i + 5), 16));
+                            i += 4;
+                            break;
+                        } catch (NumberFormatException ex) {
+                            // fall through: keep as written
+                        }
+                    }
+                    sb.append('\\').append(e);
+                    break;
+                default:
+                    sb.append('\\').append(e);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Encode a value for writing inside a JSON string (null becomes "").
+     */
+    public static String escape(String s) {
+        if (s == null) return "";
+
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String rep = null;
+            switch (c) {
+                case '"':  rep = "\\\""; break;
+                case '\\': rep = "\\\\"; break;
+                case '\n': rep = "\\n"; break;
+                case '\r': rep = "\\r"; break;
+                case '\t': rep = "\\t"; break;
+                case '\b': rep = "\\b"; break;
+                case '\f': rep = "\\f"; break;
+                default:
+                    if (c < 0x20) rep = String.format("\\u%04x", (int) c);
+            }
+            if (rep != null) {
+                if (sb == null) {
+                    sb = new StringBuilder(s.length() + 8);
+                    sb.append(s, 0, i);
+                }
+                sb.append(rep);
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? s : sb.toString();
+    }
+}
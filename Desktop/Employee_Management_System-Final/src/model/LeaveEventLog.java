@@ -0,0 +1,386 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only event log for leave requests, with snapshots.
+ *
+ * One JSON object per line (same flat format as users.txt):
+ *   {"op":"submit","id":7,"username":"...","from":"2025-01-02","to":"...","type":"...","reason":"...","status":"Pending","remarks":""}
+ *   {"op":"update","id":7,"from":"...","to":"...","type":"...","reason":"..."}
+ *   {"op":"approve" | "reject" | "decide","id":7,"status":"...","remarks":"..."}
+ *   {"op":"remove","id":7}
+ *
+ * Events are handed to a GroupCommitWriter and not waited for, so logging a
+ * change costs building one line and a queue insert; durability follows the
+ * configured fsync policy.
+ *
+ * The snapshot is a header line {"snapshot":1,"offset":N,"nextId":M} followed
+ * by one submit line per request (current fields and status), oldest first.
+ * Recovery loads it and replays the log from offset N, then writes a fresh
+ * snapshot and starts an empty log. A malformed line is logged and skipped;
+ * only a torn last line (no line end: the crash hit mid-write) is dropped
+ * quietly. While running, a new snapshot is taken every snapshotEvery events
+ * on a background thread: it takes the lock that guards the store just long
+ * enough to copy the requests' fields, then builds and writes the lines
+ * without it once the last copied event's offset is known.
+ */
+public final class LeaveEventLog implements LeaveStore.Listener, AutoCloseable {
+
+    public static final String OP_SUBMIT = "submit";
+    public static final String OP_UPDATE = "update";
+    public static final String OP_APPROVE = "approve";
+    public static final String OP_REJECT = "reject";
+    public static final String OP_DECIDE = "decide";   // any other status
+    public static final String OP_REMOVE = "remove";
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final Logger logger = Logger.getLogger(LeaveEventLog.class.getName());
+
+    private final File logFile;
+    private final File snapshotFile;
+    private final GroupCommitWriter.FsyncPolicy policy;
+    private final long fsyncIntervalMillis;
+    private final long snapshotEvery;
+
+    private GroupCommitWriter writer;
+    private LeaveStore state;
+    private Object stateLock;   // held by every change to state (and so by append)
+
+    // Offset just past the last line known to be written (completes when that is settled)
+    private CompletableFuture<Long> lastEnd = CompletableFuture.completedFuture(0L);
+    private long sinceSnapshot = 0;
+    private final AtomicBoolean snapshotQueued = new AtomicBoolean();
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "leave-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public LeaveEventLog(File logFile, File snapshotFile, GroupCommitWriter.FsyncPolicy policy,
+                         long fsyncIntervalMillis, long snapshotEvery) {
+        this.logFile = logFile;
+        this.snapshotFile = snapshotFile;
+        this.policy = policy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+    }
+
+    /**
+     * Log in ./leaves.log, configured from system properties:
+     * ems.leave.fsync (batch | interval | never, default interval),
+     * ems.leave.fsyncIntervalMs (default 100),
+     * ems.leave.snapshotEvery (events, default 10000).
+     */
+    public static LeaveEventLog fromSystemProperties() {
+        return new LeaveEventLog(new File("./leaves.log"), new File("./leaves.snapshot"),
+                GroupCommitWriter.FsyncPolicy.parse(System.getProperty("ems.leave.fsync"),
+                        GroupCommitWriter.FsyncPolicy.INTERVAL),
+                Long.getLong("ems.leave.fsyncIntervalMs", 100),
+                Long.getLong("ems.leave.snapshotEvery", 10_000));
+    }
+
+    // --------------------------------------------------
+    // Recovery
+    // --------------------------------------------------
+
+    /**
+     * Rebuild 'state' (empty, no listeners yet) from snapshot + log, then
+     * compact: its contents become the new snapshot and the log starts empty.
+     * stateLock is the monitor every later change to 'state' is made under;
+     * runtime snapshots take it to copy the store. Call once, before any
+     * change is logged.
+     */
+    public void recover(LeaveStore state, Object stateLock) throws IOException {
+        Map<Long, LeaveRequest> byId = new HashMap<>();
+        long offset = loadSnapshot(state, byId);
+        replayLog(state, byId, offset);
+
+        this.state = state;
+        this.stateLock = stateLock;
+        writeSnapshot(0, state.getNextId(), snapshotLines(copyRequests()));
+        try (FileChannel ch = FileChannel.open(logFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ch.truncate(0);
+            ch.force(true);
+        }
+        writer = new GroupCommitWriter(logFile, policy, fsyncIntervalMillis);
+    }
+
+    private long loadSnapshot(LeaveStore state, Map<Long, LeaveRequest> byId) throws IOException {
+        if (!snapshotFile.exists()) return 0;
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(snapshotFile), StandardCharsets.UTF_8))) {
+            JsonLineParser.Fields header = new JsonLineParser.Fields("snapshot", "offset", "nextId");
+            if (!JsonLineParser.parse(br.readLine(), header)
+                    || !String.valueOf(SNAPSHOT_VERSION).equals(header.get("snapshot"))) {
+                throw new IOException("Not a leave snapshot: " + snapshotFile);
+            }
+
+            JsonLineParser.Fields f = eventFields();
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!JsonLineParser.parse(line, f) || !apply(f, state, byId)) {
+                    throw new IOException("Corrupt leave snapshot: " + snapshotFile);
+                }
+            }
+            try {
+                state.setNextId(Long.parseLong(header.get("nextId")));
+                return Long.parseLong(header.get("offset"));
+            } catch (NumberFormatException ex) {
+                throw new IOException("Corrupt leave snapshot header: " + snapshotFile, ex);
+            }
+        }
+    }
+
+    private void replayLog(LeaveStore state, Map<Long, LeaveRequest> byId, long from) throws IOException {
+        if (!logFile.exists()) return;
+
+        try (FileInputStream in = new FileInputStream(logFile)) {
+            FileChannel ch = in.getChannel();
+            long size = ch.size();
+            boolean endsWithNewline = false;
+            if (size > from) {
+                ByteBuffer last = ByteBuffer.allocate(1);
+                ch.read(last, size - 1);
+                endsWithNewline = last.get(0) == '\n';
+            }
+            ch.position(from);
+            BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+
+            JsonLineParser.Fields f = eventFields();
+            long lineNo = 0;
+            int skipped = 0;
+            String line = br.readLine();
+            while (line != null) {
+                String next = br.readLine();
+                lineNo++;
+                if (!JsonLineParser.parse(line, f) || !apply(f, state, byId)) {
+                    if (next == null && !endsWithNewline) break;   // torn last line: the crash hit mid-write
+                    logger.warning("Skipping malformed leave event (line " + lineNo + " after offset " + from
+                            + " of " + logFile + "): " + line);
+                    skipped++;
+                }
+                line = next;
+            }
+            if (skipped > 0) {
+                logger.log(Level.SEVERE, "{0} malformed leave event(s) skipped while replaying {1}",
+                        new Object[] {skipped, logFile});
+            }
+        }
+    }
+
+    private static JsonLineParser.Fields eventFields() {
+        return new JsonLineParser.Fields("op", "id", "username", "from", "to", "type", "reason", "status", "remarks");
+    }
+
+    // Apply one event; false if it is malformed. Events for unknown ids are skipped.
+    private static boolean apply(JsonLineParser.Fields f, LeaveStore state, Map<Long, LeaveRequest> byId) {
+        String op = f.get("op");
+        long id;
+        try {
+            id = Long.parseLong(f.get("id"));
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+        if (op == null) return false;
+
+        try {
+            switch (op) {
+                case OP_SUBMIT: {
+                    if (byId.containsKey(id)) return true;
+                    LeaveRequest r = new LeaveRequest(f.get("username"),
+                            LocalDate.parse(f.get("from")), LocalDate.parse(f.get("to")),
+                            f.get("type"), f.get("reason"));
+                    if (f.has("status")) r.setStatus(f.get("status"));
+                    if (f.has("remarks")) r.setRemarks(f.get("remarks"));
+                    state.restore(id, r);
+                    byId.put(id, r);
+                    return true;
+                }
+                case OP_UPDATE: {
+                    LeaveRequest r = byId.get(id);
+                    if (r == null) return true;
+                    r.setFromDate(LocalDate.parse(f.get("from")));
+                    r.setToDate(LocalDate.parse(f.get("to")));
+                    r.setLeaveType(f.get("type"));
+                    r.setReason(f.get("reason"));
+                    return true;
+                }
+                case OP_APPROVE:
+                case OP_REJECT:
+                case OP_DECIDE: {
+                    LeaveRequest r = byId.get(id);
+                    if (r == null) return true;
+                    r.setStatus(f.get("status"));
+                    r.setRemarks(f.get("remarks") == null ? "" : f.get("remarks"));
+                    state.statusChanged(r);
+                    return true;
+                }
+                case OP_REMOVE: {
+                    LeaveRequest r = byId.remove(id);
+                    if (r != null) state.remove(r);
+                    return true;
+                }
+                default:
+                    return false;
+            }
+        } catch (DateTimeParseException | NullPointerException ex) {
+            return false;
+        }
+    }
+
+    // --------------------------------------------------
+    // Logging (LeaveStore.Listener, called under LeaveController's lock)
+    // --------------------------------------------------
+
+    @Override
+    public void submitted(LeaveRequest r) {
+        append(submitLine(r));
+    }
+
+    @Override
+    public void updated(LeaveRequest r) {
+        append("{\"op\":\"" + OP_UPDATE + "\",\"id\":" + r.getId()
+                + ",\"from\":\"" + r.getFromDate()
+                + "\",\"to\":\"" + r.getToDate()
+                + "\",\"type\":\"" + JsonLineParser.escape(r.getLeaveType())
+                + "\",\"reason\":\"" + JsonLineParser.escape(r.getReason()) + "\"}\n");
+    }
+
+    @Override
+    public void statusChanged(LeaveRequest r) {
+        String op = "Approved".equalsIgnoreCase(r.getStatus()) ? OP_APPROVE
+                : "Rejected".equalsIgnoreCase(r.getStatus()) ? OP_REJECT
+                : OP_DECIDE;
+        append("{\"op\":\"" + op + "\",\"id\":" + r.getId()
+                + ",\"status\":\"" + JsonLineParser.escape(r.getStatus())
+                + "\",\"remarks\":\"" + JsonLineParser.escape(r.getRemarks()) + "\"}\n");
+    }
+
+    @Override
+    public void removed(LeaveRequest r) {
+        append("{\"op\":\"" + OP_REMOVE + "\",\"id\":" + r.getId() + "}\n");
+    }
+
+    private static String submitLine(LeaveRequest r) {
+        return "{\"op\":\"" + OP_SUBMIT + "\",\"id\":" + r.getId()
+                + ",\"username\":\"" + JsonLineParser.escape(r.getUsername())
+                + "\",\"from\":\"" + r.getFromDate()
+                + "\",\"to\":\"" + r.getToDate()
+                + "\",\"type\":\"" + JsonLineParser.escape(r.getLeaveType())
+                + "\",\"reason\":\"" + JsonLineParser.escape(r.getReason())
+                + "\",\"status\":\"" + JsonLineParser.escape(r.getStatus())
+                + "\",\"remarks\":\"" + JsonLineParser.escape(r.getRemarks()) + "\"}\n";
+    }
+
+    private void append(String line) {
+        GroupCommitWriter w = writer;
+        if (w == null) return;   // not recovered yet
+
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        // A failed write keeps the previous good offset, so lastEnd never fails
+        // and the next snapshot still gets written
+        CompletableFuture<Long> previous = lastEnd;
+        lastEnd = w.submit(bytes).handle((offset, ex) -> {
+            if (ex == null) return CompletableFuture.completedFuture(offset + bytes.length);
+            logger.log(Level.SEVERE, "Could not append leave event to " + logFile, ex);
+            return previous;
+        }).thenCompose(end -> end);
+
+        if (++sinceSnapshot >= snapshotEvery && snapshotQueued.compareAndSet(false, true)) {
+            sinceSnapshot = 0;
+            snapshotter.submit(this::snapshotQuietly);   // the copy happens there, not on the caller's thread
+        }
+    }
+
+    // --------------------------------------------------
+    // Snapshots
+    // --------------------------------------------------
+
+    // Requests are changed in place, so a snapshot copies them (fields only, no formatting)
+    private List<LeaveRequest> copyRequests() {
+        List<LeaveRequest> all = state.all();
+        List<LeaveRequest> copies = new ArrayList<>(all.size());
+        for (LeaveRequest r : all) {
+            LeaveRequest c = new LeaveRequest(r.getUsername(), r.getFromDate(), r.getToDate(),
+                    r.getLeaveType(), r.getReason());
+            c.setId(r.getId());
+            c.setStatus(r.getStatus());
+            c.setRemarks(r.getRemarks());
+            copies.add(c);
+        }
+        return copies;
+    }
+
+    private static List<String> snapshotLines(List<LeaveRequest> requests) {
+        List<String> lines = new ArrayList<>(requests.size());
+        for (LeaveRequest r : requests) lines.add(submitLine(r));
+        return lines;
+    }
+
+    private void snapshotQuietly() {
+        try {
+            CompletableFuture<Long> end;
+            long nextId;
+            List<LeaveRequest> copies;
+            synchronized (stateLock) {   // consistent with the log up to 'end'
+                end = lastEnd;
+                nextId = state.getNextId();
+                copies = copyRequests();
+            }
+            writeSnapshot(GroupCommitWriter.await(end), nextId, snapshotLines(copies));
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        } finally {
+            snapshotQueued.set(false);
+        }
+    }
+
+    private synchronized void writeSnapshot(long logOffset, long nextId, List<String> lines) throws IOException {
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8), 64 * 1024)) {
+            out.write("{\"snapshot\":" + SNAPSHOT_VERSION + ",\"offset\":" + logOffset + ",\"nextId\":" + nextId + "}\n");
+            for (String line : lines) out.write(line);
+            out.flush();
+            fos.getFD().sync();
+        }
+        Files.move(tmp.toPath(), snapshotFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshotter.shutdown();
+        if (writer != null) writer.close();
+    }
+}
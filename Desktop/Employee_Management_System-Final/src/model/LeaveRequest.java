@@ -9,6 +9,7 @@ import java.time.LocalDate;
  * @author roshitlamichhane
  */
 public class LeaveRequest {
+    private long id;   // assigned by LeaveStore on submit (FIFO order)
   private final String username;
     private LocalDate fromDate;
     private LocalDate toDate;
@@ -29,6 +30,9 @@ public class LeaveRequest {
         this.remarks = "";
     }
 
+    public long getId() { return id; }
+    void setId(long id) { this.id = id; }
+
     public String getUsername() { return username; }
     public LocalDate getFromDate() { return fromDate; }
     public LocalDate getToDate() { return toDate; }
@@ -0,0 +1,201 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * All leave requests, split by whether they still need a decision.
+ *
+ *  - pending: undecided requests in submission order (SegmentedLeaveQueue);
+ *             the oldest is always at the head. Each has a queue handle,
+ *             found by id, so taking one out of the middle is O(1)
+ *  - decided: approved / rejected requests, moved out of the hot queue and
+ *             kept by id for the history views
+ *  - byUser:  username -> that employee's requests by id, whatever their status
+ *
+ * Every request gets an increasing id when it is submitted; "all requests"
+ * views are in id order, i.e. FIFO.
+ *
+ * Not thread-safe: LeaveController guards every mutation. The pending count
+ * and the oldest pending request are republished (atomic / volatile) after
+ * each one, so pendingCount() and peekPending() can be read without that lock.
+ */
+public final class LeaveStore {
+
+    public static final String PENDING = "Pending";
+
+    /**
+     * Told about every change, in order, by the thread making it (so under the
+     * controller's lock).
+     */
+    public interface Listener {
+        void submitted(LeaveRequest r);
+        void updated(LeaveRequest r);          // dates / type / reason
+        void statusChanged(LeaveRequest r);    // status / remarks
+        void removed(LeaveRequest r);
+    }
+
+    private final SegmentedLeaveQueue<LeaveRequest> pending = new SegmentedLeaveQueue<>();
+    private final Map<Long, SegmentedLeaveQueue.Handle> pendingHandles = new HashMap<>();
+    private final TreeMap<Long, LeaveRequest> decided = new TreeMap<>();
+    private final Map<String, TreeMap<Long, LeaveRequest>> byUser = new HashMap<>();
+    private long nextId = 1;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private volatile LeaveRequest pendingHead;
+
+    public static boolean isPending(LeaveRequest r) {
+        return r != null && PENDING.equalsIgnoreCase(r.getStatus());
+    }
+
+    public void addListener(Listener l) {
+        listeners.add(l);
+    }
+
+    /**
+     * Add a new request (gets the next id).
+     */
+    public void submit(LeaveRequest r) {
+        r.setId(nextId++);
+        insert(r);
+        for (Listener l : listeners) l.submitted(r);
+    }
+
+    /**
+     * Put back a request that already has an id (recovery). Listeners are not told.
+     */
+    void restore(long id, LeaveRequest r) {
+        r.setId(id);
+        nextId = Math.max(nextId, id + 1);
+        insert(r);
+    }
+
+    long getNextId() {
+        return nextId;
+    }
+
+    void setNextId(long nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+    }
+
+    private void insert(LeaveRequest r) {
+        byUser.computeIfAbsent(r.getUsername(), k -> new TreeMap<>()).put(r.getId(), r);
+        if (isPending(r)) {
+            enqueuePending(r);
+        } else {
+            decided.put(r.getId(), r);
+        }
+    }
+
+    /**
+     * Call after r's status or remarks changed: a decided request leaves the
+     * hot queue; one set back to Pending rejoins it (at the end).
+     */
+    public void statusChanged(LeaveRequest r) {
+        if (isPending(r)) {
+            if (decided.remove(r.getId()) != null) enqueuePending(r);
+        } else {
+            if (dequeuePending(r)) decided.put(r.getId(), r);
+        }
+        for (Listener l : listeners) l.statusChanged(r);
+    }
+
+    /**
+     * Call after r's dates, type or reason were edited.
+     */
+    public void fieldsChanged(LeaveRequest r) {
+        for (Listener l : listeners) l.updated(r);
+    }
+
+    /**
+     * Oldest pending request, or null. Safe without the controller's lock.
+     */
+    public LeaveRequest peekPending() {
+        return pendingHead;
+    }
+
+    public LeaveRequest pollPending() {
+        LeaveRequest r = pending.poll();
+        if (r != null) {
+            pendingHandles.remove(r.getId());
+            unindex(r);
+            pendingChanged(-1);
+            for (Listener l : listeners) l.removed(r);
+        }
+        return r;
+    }
+
+    /**
+     * Number of pending requests. Safe without the controller's lock.
+     */
+    public int pendingCount() {
+        return pendingCount.get();
+    }
+
+    public boolean remove(LeaveRequest r) {
+        if (r == null) return false;
+        if (!decided.remove(r.getId(), r) && !dequeuePending(r)) return false;
+
+        unindex(r);
+        for (Listener l : listeners) l.removed(r);
+        return true;
+    }
+
+    private void enqueuePending(LeaveRequest r) {
+        pendingHandles.put(r.getId(), pending.add(r));
+        pendingChanged(1);
+    }
+
+    // O(1) removal from anywhere in the hot queue
+    private boolean dequeuePending(LeaveRequest r) {
+        SegmentedLeaveQueue.Handle h = pendingHandles.get(r.getId());
+        if (h == null || !pending.remove(h)) return false;
+        pendingHandles.remove(r.getId());
+        pendingChanged(-1);
+        return true;
+    }
+
+    private void unindex(LeaveRequest r) {
+        TreeMap<Long, LeaveRequest> mine = byUser.get(r.getUsername());
+        if (mine == null) return;
+        mine.remove(r.getId());
+        if (mine.isEmpty()) byUser.remove(r.getUsername());
+    }
+
+    // Republish the lock-free views after the pending queue changed
+    private void pendingChanged(int delta) {
+        pendingCount.addAndGet(delta);
+        pendingHead = pending.peek();
+    }
+
+    public int size() {
+        return pending.size() + decided.size();
+    }
+
+    /**
+     * One employee's requests, oldest first. O(their requests).
+     */
+    public List<LeaveRequest> forUser(String username) {
+        TreeMap<Long, LeaveRequest> mine = byUser.get(username);
+        if (mine == null) return new ArrayList<>();
+        return new ArrayList<>(mine.values());
+    }
+
+    /**
+     * Every request, oldest first.
+     */
+    public List<LeaveRequest> all() {
+        List<LeaveRequest> list = new ArrayList<>(size());
+        list.addAll(decided.values());
+        for (LeaveRequest r : pending) list.add(r);
+        list.sort(Comparator.comparingLong(LeaveRequest::getId));   // two sorted runs: a linear merge
+        return list;
+    }
+}
@@ -0,0 +1,95 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped read path for users.txt.
+ *
+ * The file is mapped with FileChannel.map and scanned in place: record (line)
+ * boundaries and field positions are found in the mapping itself, without
+ * copying or decoding lines (see JsonLineParser), and only the bytes of a
+ * field value a caller asks for are copied and turned into a String.
+ */
+public final class MappedUserFile {
+
+    /**
+     * Callback for each record in the file.
+     */
+    public interface RecordVisitor {
+        void visit(Record record);
+    }
+
+    /**
+     * One line of the mapped file. Only valid inside RecordVisitor.visit.
+     */
+    public static final class Record {
+        private ByteBuffer buf;
+        private int start;
+        private int end;   // exclusive, line terminator not included
+
+        /**
+         * Tokenize this line in place into the given Fields; values stay as
+         * byte ranges of the mapping until Fields.get() is called.
+         */
+        public boolean parse(JsonLineParser.Fields into) {
+            return JsonLineParser.parse(buf, start, end, into);
+        }
+    }
+
+    private MappedUserFile() {
+    }
+
+    /**
+     * Map the file and visit every non-blank line in order.
+     * Returns false (without visiting anything) if the file is too large for a
+     * single mapping; callers then fall back to the BufferedReader path.
+     */
+    public static boolean forEachRecord(File file, RecordVisitor visitor) throws IOException {
+        if (!file.exists()) return true;
+
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) return false;
+            if (size == 0) return true;
+
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            map.order(ByteOrder.LITTLE_ENDIAN);   // what the word-at-a-time search reads natively
+            Record rec = new Record();
+            rec.buf = map;
+
+            // Lines are found in the mapping itself, eight bytes per step
+            int limit = (int) size;
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int nl = JsonLineParser.indexOf(map, lineStart, limit, (byte) '\n');
+                int lineEnd = nl < 0 ? limit : nl;
+                visitLine(map, lineStart, lineEnd, rec, visitor);
+                lineStart = lineEnd + 1;
+            }
+        }
+        return true;
+    }
+
+    private static void visitLine(ByteBuffer buf, int from, int to, Record rec, RecordVisitor visitor) {
+        if (to > from && buf.get(to - 1) == '\r') to--;
+        if (isBlank(buf, from, to)) return;
+        rec.start = from;
+        rec.end = to;
+        visitor.visit(rec);
+    }
+
+    // Stops at the first non-blank byte, i.e. almost at once for a record
+    private static boolean isBlank(ByteBuffer buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b != ' ' && b != '\t') return false;
+        }
+        return true;
+    }
+}
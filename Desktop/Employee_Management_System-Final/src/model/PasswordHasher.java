@@ -0,0 +1,114 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted PBKDF2 password hashes.
+ *
+ * Stored form: pbkdf2$<iterations>$<salt base64>$<hash base64>
+ * The work factor for new hashes comes from -Dems.pbkdf2.iterations
+ * (default 120000); existing hashes keep the count they were made with and
+ * are upgraded on the next successful login (see needsRehash).
+ *
+ * Anything not in that form is a legacy plain-text password from older users.txt files.
+ */
+public final class PasswordHasher {
+
+    private static final String PREFIX = "pbkdf2$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    public static final int DEFAULT_ITERATIONS = 120_000;
+
+    private static volatile int iterations =
+            Math.max(1, Integer.getInteger("ems.pbkdf2.iterations", DEFAULT_ITERATIONS));
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PasswordHasher() {
+    }
+
+    public static int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Change the work factor used for new hashes.
+     */
+    public static void setIterations(int count) {
+        if (count > 0) iterations = count;
+    }
+
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    public static String hash(String password) {
+        return hash(password, iterations);
+    }
+
+    public static String hash(String password, int iterationCount) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] dk = derive(password, salt, iterationCount);
+
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterationCount + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(dk);
+    }
+
+    /**
+     * Check a password against a stored value (hash or legacy plain text).
+     */
+    public static boolean verify(String password, String stored) {
+        if (password == null || stored == null) return false;
+
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(
+                    password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) return false;
+        try {
+            int count = Integer.parseInt(parts[1]);
+            Base64.Decoder b64 = Base64.getDecoder();
+            byte[] salt = b64.decode(parts[2]);
+            byte[] expected = b64.decode(parts[3]);
+            return MessageDigest.isEqual(expected, derive(password, salt, count));
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * True if the stored value is plain text or uses fewer iterations than the current setting.
+     */
+    public static boolean needsRehash(String stored) {
+        if (!isHashed(stored)) return true;
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException ex) {
+            return true;
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterationCount) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterationCount, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ALGORITHM + " not available", ex);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
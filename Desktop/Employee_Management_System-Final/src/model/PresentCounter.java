@@ -0,0 +1,66 @@
+package model;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live "present today" gauge: employees punched in today and not yet out.
+ *
+ * Kept as one AtomicLong holding (epoch day << 32 | count). Punches move it by
+ * one; a value stamped with an earlier day reads as 0, so the gauge rolls over
+ * at midnight without a timer. Reads are a single atomic get.
+ */
+public final class PresentCounter {
+
+    private final AtomicLong state = new AtomicLong();
+    private final Clock clock;
+
+    public PresentCounter() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public PresentCounter(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void punchedIn(LocalDate date) {
+        add(date, 1);
+    }
+
+    public void punchedOut(LocalDate date) {
+        add(date, -1);
+    }
+
+    public int get() {
+        long s = state.get();
+        return dayOf(s) == today() ? Math.max(0, countOf(s)) : 0;
+    }
+
+    // Only punches dated today move the gauge
+    private void add(LocalDate date, int delta) {
+        long today = today();
+        if (date == null || date.toEpochDay() != today) return;
+
+        while (true) {
+            long s = state.get();
+            int count = dayOf(s) == today ? countOf(s) : 0;   // new day: start from 0
+            // Not clamped here: a punch-out racing ahead of its punch-in may dip
+            // below zero for a moment, and the two still net out
+            long updated = (today << 32) | ((count + delta) & 0xFFFFFFFFL);
+            if (state.compareAndSet(s, updated)) return;
+        }
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    private static long dayOf(long s) {
+        return s >>> 32;
+    }
+
+    private static int countOf(long s) {
+        return (int) s;
+    }
+}
@@ -0,0 +1,85 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * Fixed-capacity ring of the newest N entries.
+ *
+ * push() never fails: once full, the oldest entry is overwritten (the caller
+ * keeps the full history elsewhere). Writers claim a slot with one atomic
+ * increment; readers walk newest to oldest without locks or copying, skipping
+ * a slot that is mid-write and stopping once they reach overwritten entries.
+ */
+public final class RecentActivityRing<T> {
+
+    private static final class Slot<T> {
+        final long seq;
+        final T value;
+
+        Slot(long seq, T value) {
+            this.seq = seq;
+            this.value = value;
+        }
+    }
+
+    private final int capacity;
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final AtomicLong next = new AtomicLong();   // sequence number of the next push
+
+    public RecentActivityRing(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public void push(T value) {
+        long seq = next.getAndIncrement();
+        slots.set((int) (seq % capacity), new Slot<>(seq, value));
+    }
+
+    /**
+     * Visit entries newest first until the visitor returns false.
+     */
+    public void forEachNewest(Predicate<? super T> visitor) {
+        long end = next.get();
+        long start = Math.max(0, end - capacity);
+        for (long seq = end - 1; seq >= start; seq--) {
+            Slot<T> s = slots.get((int) (seq % capacity));
+            if (s == null || s.seq < seq) continue;   // claimed but not written yet
+            if (s.seq > seq) return;                  // lapped: older entries are gone
+            if (!visitor.test(s.value)) return;
+        }
+    }
+
+    public T peekNewest() {
+        Object[] box = new Object[1];
+        forEachNewest(v -> {
+            box[0] = v;
+            return false;
+        });
+        @SuppressWarnings("unchecked")
+        T v = (T) box[0];
+        return v;
+    }
+
+    public int size() {
+        return (int) Math.min(next.get(), capacity);
+    }
+
+    public List<T> toListNewestFirst() {
+        List<T> list = new ArrayList<>(size());
+        forEachNewest(v -> {
+            list.add(v);
+            return true;
+        });
+        return list;
+    }
+}
@@ -0,0 +1,168 @@
+package model;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Unbounded FIFO queue stored in fixed-size chunks.
+ *
+ * Grows one segment (SEGMENT_SIZE slots) at a time, so there is never a full
+ * copy of the queue; segments form a doubly-linked list. add, peek and poll
+ * are O(1) amortised.
+ *
+ * add returns a Handle (segment + slot) that stays valid until the item leaves
+ * the queue. remove(handle) is O(1): the slot is emptied (no shifting) and a
+ * segment whose items have all been removed is unlinked at once, the tail
+ * included (the next add starts a fresh one). Empty slots are skipped by
+ * peek, poll and iteration.
+ *
+ * Not thread-safe: LeaveStore is only used under LeaveController's lock.
+ */
+public final class SegmentedLeaveQueue<T> implements Iterable<T> {
+
+    static final int SEGMENT_SIZE = 256;
+
+    private static final class Segment {
+        final Object[] items = new Object[SEGMENT_SIZE];
+        int head = 0;   // first slot not yet polled
+        int tail = 0;   // next slot to fill
+        int live = 0;   // filled slots
+        Segment prev;
+        Segment next;
+    }
+
+    /**
+     * Position of one queued item.
+     */
+    public static final class Handle {
+        private Segment segment;   // null once removed
+        private final int slot;
+
+        private Handle(Segment segment, int slot) {
+            this.segment = segment;
+            this.slot = slot;
+        }
+    }
+
+    private Segment first = new Segment();
+    private Segment last = first;
+    private int size = 0;
+
+    public Handle add(T item) {
+        if (item == null) throw new NullPointerException();
+        if (last.tail == SEGMENT_SIZE) {
+            Segment s = new Segment();
+            s.prev = last;
+            last.next = s;
+            last = s;
+        }
+        int slot = last.tail++;
+        last.items[slot] = item;
+        last.live++;
+        size++;
+        return new Handle(last, slot);
+    }
+
+    public T peek() {
+        skipEmpty();
+        return first.head < first.tail ? item(first, first.head) : null;
+    }
+
+    public T poll() {
+        skipEmpty();
+        if (first.head == first.tail) return null;
+
+        T item = item(first, first.head);
+        first.items[first.head++] = null;
+        first.live--;
+        size--;
+        return item;
+    }
+
+    /**
+     * Remove the item behind this handle. O(1). False if it already left the
+     * queue (polled, or removed before). The caller must not use a handle
+     * after its item was polled.
+     */
+    public boolean remove(Handle h) {
+        Segment s = h.segment;
+        if (s == null || s.items[h.slot] == null) return false;
+
+        s.items[h.slot] = null;
+        h.segment = null;
+        size--;
+        if (--s.live == 0) unlink(s);
+        return true;
+    }
+
+    // Drop an emptied segment from the list. Every item before it is in an
+    // earlier segment, so adds can carry on after the new last one's tail.
+    private void unlink(Segment s) {
+        if (s.prev == null) first = s.next;
+        else s.prev.next = s.next;
+        if (s.next == null) last = s.prev;
+        else s.next.prev = s.prev;
+        s.prev = null;
+        s.next = null;
+
+        if (first == null) {
+            // It was the only segment: start over with a fresh one (never reuse
+            // slots that an old handle may still point at)
+            first = new Segment();
+            last = first;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Advance the head past removed slots and finished segments
+    private void skipEmpty() {
+        while (true) {
+            while (first.head < first.tail && first.items[first.head] == null) first.head++;
+            if (first.head < first.tail || first.next == null) return;
+            first = first.next;   // this segment is used up: let it go
+            first.prev = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(Segment s, int i) {
+        return (T) s.items[i];
+    }
+
+    /**
+     * Oldest first; removed slots are skipped.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            Segment s = first;
+            int i = first.head;
+
+            @Override
+            public boolean hasNext() {
+                while (s != null) {
+                    while (i < s.tail) {
+                        if (s.items[i] != null) return true;
+                        i++;
+                    }
+                    s = s.next;
+                    if (s != null) i = s.head;
+                }
+                return false;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return item(s, i++);
+            }
+        };
+    }
+}
@@ -0,0 +1,206 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * The original storage: one JSON object per line in a plain text file (users.txt).
+ *
+ * Appends are queued on a GroupCommitWriter so a burst of saves shares one
+ * open channel and one write/fsync per batch. The fsync policy comes from
+ * -Dems.users.fsync=batch|interval|never (default batch) and
+ * -Dems.users.fsyncIntervalMs (default 200).
+ *
+ * compact() rewrites the file with only the latest line per username (exact
+ * case: "Bob" and "bob" are different users and both are kept); the
+ * writer is closed and reopened around it, so appends made meanwhile wait.
+ * close() drains the writer and stops its thread.
+ */
+public class TextFileStorageEngine implements UserStorageEngine {
+
+    private final File file;
+
+    // Bulk reads go through MappedUserFile unless -Dems.users.mmap=false
+    private volatile boolean memoryMapped =
+            !"false".equalsIgnoreCase(System.getProperty("ems.users.mmap"));
+
+    private final GroupCommitWriter.FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+
+    // Replaced by compact(); taken and used under writerLock
+    private GroupCommitWriter writer;
+    private final Object writerLock = new Object();
+
+    public TextFileStorageEngine(File file) {
+        this(file,
+             GroupCommitWriter.FsyncPolicy.parse(System.getProperty("ems.users.fsync"),
+                     GroupCommitWriter.FsyncPolicy.EVERY_BATCH),
+             Long.getLong("ems.users.fsyncIntervalMs", 200));
+    }
+
+    public TextFileStorageEngine(File file, GroupCommitWriter.FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+        this.file = file;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.writer = new GroupCommitWriter(file, fsyncPolicy, fsyncIntervalMillis);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+
+    /**
+     * Visit records straight from the mapped file without decoding whole lines.
+     * Returns false if the mapped read mode is off or the file cannot be mapped;
+     * use forEachRecord in that case.
+     */
+    public boolean forEachMappedRecord(MappedUserFile.RecordVisitor visitor) throws IOException {
+        if (!memoryMapped) return false;
+        return MappedUserFile.forEachRecord(file, visitor);
+    }
+
+    @Override
+    public void append(String username, String jsonLine) throws IOException {
+        GroupCommitWriter.await(appendAsync(username, jsonLine));
+    }
+
+    @Override
+    public CompletableFuture<Void> appendAsync(String username, String jsonLine) {
+        byte[] line = (jsonLine + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        synchronized (writerLock) {
+            return writer.submit(line).thenApply(offset -> null);
+        }
+    }
+
+    /**
+     * All lines go to the writer as one record, i.e. one write (and one fsync).
+     */
+    @Override
+    public CompletableFuture<Void> appendAllAsync(List<String> usernames, List<String> jsonLines) {
+        StringBuilder sb = new StringBuilder(jsonLines.size() * 200);
+        for (String line : jsonLines) {
+            sb.append(line).append(System.lineSeparator());
+        }
+        byte[] batch = sb.toString().getBytes(StandardCharsets.UTF_8);
+        synchronized (writerLock) {
+            return writer.submit(batch).thenApply(offset -> null);
+        }
+    }
+
+    /**
+     * Wait for every queued append to reach the file.
+     */
+    public void flush() throws IOException {
+        GroupCommitWriter w;
+        synchronized (writerLock) {
+            w = writer;
+        }
+        w.flush();
+    }
+
+    @Override
+    public void compact() throws IOException {
+        synchronized (writerLock) {
+            writer.close();   // everything queued is in the file now
+            try {
+                rewriteLatestOnly();
+            } finally {
+                writer = new GroupCommitWriter(file, fsyncPolicy, fsyncIntervalMillis);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writerLock) {
+            writer.close();   // later appends fail with "Writer closed"
+        }
+    }
+
+    // Latest line per exact username, at the position of that user's first line (keeps listing order)
+    private void rewriteLatestOnly() throws IOException {
+        Map<String, String> latest = new LinkedHashMap<>();
+        JsonLineParser.Fields f = AdminModel.userFields("username");
+        int[] anonymous = {0};
+        forEachRecord(line -> {
+            JsonLineParser.parse(line, f);
+            String u = f.get("username");
+            String key = (u == null || u.isBlank()) ? "\0" + anonymous[0]++ : u.trim();
+            latest.put(key, line);
+        });
+
+        File tmp = new File(file.getPath() + ".compact");
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8))) {
+            for (String line : latest.values()) {
+                out.write(line);
+                out.write(System.lineSeparator());
+            }
+            out.flush();
+            fos.getFD().sync();
+        }
+        Files.move(tmp.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public String read(String username) throws IOException {
+        if (username == null) return null;
+        String wanted = username.trim();
+
+        // No index in the text format: last matching line wins
+        String[] found = new String[1];
+        JsonLineParser.Fields f = AdminModel.userFields("username");
+        forEachRecord(line -> {
+            JsonLineParser.parse(line, f);
+            String u = f.get("username");
+            if (u != null && u.trim().equalsIgnoreCase(wanted)) {
+                found[0] = line;
+            }
+        });
+        return found[0];
+    }
+
+    @Override
+    public void forEachRecord(Consumer<String> visitor) throws IOException {
+        if (!file.exists()) return;
+
+        try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isBlank()) visitor.accept(line);
+            }
+        }
+    }
+
+    @Override
+    public long sizeOnDisk() {
+        return file.length();
+    }
+
+    @Override
+    public long lastModified() {
+        return file.lastModified();
+    }
+}
@@ -0,0 +1,312 @@
+package model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory view of the stored users (users.txt, or whichever UserStorageEngine
+ * AdminModel is using).
+ *
+ * The records are read once and then every lookup (login, duplicate check,
+ * dashboard counts, employee listing) is served from hash indexes keyed by
+ * exact username and lowercase email. Older files can hold users whose names
+ * differ only in case ("Bob" and "bob"); each keeps its own entry, and a
+ * lowercase index of the variants serves case-insensitive duplicate checks. Saves made through AdminModel are
+ * added to the indexes as they are appended, so the file is not re-read.
+ *
+ * If the storage is changed by someone else (size or timestamp differs from what
+ * we last saw) the directory reloads itself on the next call.
+ */
+public final class UserDirectory {
+
+    private static final java.util.logging.Logger logger = java.util.logging.Logger.getLogger(UserDirectory.class.getName());
+
+    /**
+     * One user line from users.txt (admin or employee).
+     */
+    public static final class UserEntry {
+        private final String role;
+        private final String username;
+        private final String email;
+        private final String password;
+        private final Admin admin;        // set when role = admin
+        private final Employee employee;  // set when role = employee
+
+        private UserEntry(String role, String username, String email, String password,
+                          Admin admin, Employee employee) {
+            this.role = role;
+            this.username = username;
+            this.email = email;
+            this.password = password;
+            this.admin = admin;
+            this.employee = employee;
+        }
+
+        public String getRole()         { return role; }
+        public String getUsername()     { return username; }
+        public String getEmail()        { return email; }
+        public String getPassword()     { return password; }
+        public Admin getAdmin()         { return admin; }
+        public Employee getEmployee()   { return employee; }
+
+        public boolean isEmployee() {
+            return "employee".equals(role);
+        }
+    }
+
+    private static UserDirectory shared;
+
+    // exact username -> entry (insertion order = file order, later lines replace earlier ones)
+    private final LinkedHashMap<String, UserEntry> byUsername = new LinkedHashMap<>();
+    // lowercase username -> the exact usernames stored under it (usually one)
+    private final Map<String, List<String>> variants = new HashMap<>();
+    // lowercase email -> entry
+    private final Map<String, UserEntry> byEmail = new HashMap<>();
+
+    private int employeeCount = 0;
+
+    // name prefix + trigram index over the employees above
+    private final EmployeeSearchIndex searchIndex = new EmployeeSearchIndex();
+
+    private boolean loaded = false;
+    private long seenLength = -1;
+    private long seenModified = -1;
+
+    UserDirectory() {
+    }
+
+    /**
+     * Directory shared by all AdminModel instances (they all use the same storage).
+     */
+    public static synchronized UserDirectory getInstance() {
+        if (shared == null) {
+            shared = new UserDirectory();
+        }
+        return shared;
+    }
+
+    // --------------------------------------------------
+    // Lookups
+    // --------------------------------------------------
+    /**
+     * Case-insensitive: true if any stored username equals this one ignoring case.
+     */
+    public synchronized boolean containsUsername(String username) {
+        if (username == null) return false;
+        ensureLoaded();
+        return variants.containsKey(username.trim().toLowerCase());
+    }
+
+    /**
+     * The entry with exactly this username; failing that, one whose username
+     * differs only in case.
+     */
+    public synchronized UserEntry findByUsername(String username) {
+        if (username == null) return null;
+        ensureLoaded();
+        UserEntry exact = byUsername.get(username.trim());
+        if (exact != null) return exact;
+        List<String> names = variants.get(username.trim().toLowerCase());
+        return names == null ? null : byUsername.get(names.get(0));
+    }
+
+    public synchronized UserEntry findByEmail(String email) {
+        if (email == null) return null;
+        ensureLoaded();
+        return byEmail.get(email.trim().toLowerCase());
+    }
+
+    public synchronized int getEmployeeCount() {
+        ensureLoaded();
+        return employeeCount;
+    }
+
+    /**
+     * Employees in file order (copy; safe to sort).
+     */
+    public synchronized List<Employee> getEmployees() {
+        ensureLoaded();
+        List<Employee> list = new ArrayList<>(employeeCount);
+        for (UserEntry e : byUsername.values()) {
+            if (e.isEmployee()) list.add(e.getEmployee());
+        }
+        return list;
+    }
+
+    /**
+     * Employees matching a search box query (name prefix first, then substring
+     * hits in name, username, email or department).
+     */
+    public synchronized List<Employee> searchEmployees(String query) {
+        ensureLoaded();
+        return searchIndex.search(query);
+    }
+
+    // --------------------------------------------------
+    // Incremental updates (called after a successful append)
+    // --------------------------------------------------
+    synchronized void addAdmin(Admin admin) {
+        if (admin == null) return;
+        ensureLoaded();
+        put(new UserEntry("admin", admin.getUsername(), admin.getEmail(), admin.getPassword(), admin, null));
+        markFileSeen();
+    }
+
+    synchronized void addEmployee(Employee emp) {
+        if (emp == null) return;
+        ensureLoaded();
+        put(new UserEntry("employee", emp.getUsername(), emp.getEmail(), emp.getPassword(), null, emp));
+        markFileSeen();
+    }
+
+    synchronized void addEmployees(List<Employee> emps) {
+        ensureLoaded();
+        for (Employee emp : emps) {
+            put(new UserEntry("employee", emp.getUsername(), emp.getEmail(), emp.getPassword(), null, emp));
+        }
+        markFileSeen();
+    }
+
+    /**
+     * Snapshot of every stored username, lowercased (e.g. for bulk duplicate checks).
+     */
+    public synchronized Set<String> usernameKeys() {
+        ensureLoaded();
+        return new HashSet<>(variants.keySet());
+    }
+
+    /**
+     * Drop everything; the next call reads the storage again.
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+    }
+
+    // --------------------------------------------------
+    // Loading
+    // --------------------------------------------------
+    private void ensureLoaded() {
+        UserStorageEngine storage = AdminModel.getStorageEngine();
+        if (loaded && seenLength == storage.sizeOnDisk() && seenModified == storage.lastModified()) {
+            return;
+        }
+        reload();
+    }
+
+    private void reload() {
+        byUsername.clear();
+        variants.clear();
+        byEmail.clear();
+        employeeCount = 0;
+        searchIndex.clear();
+
+        UserStorageEngine storage = AdminModel.getStorageEngine();
+        try {
+            boolean mapped = false;
+            if (storage instanceof TextFileStorageEngine text) {
+                // Zero-copy path: only the fields parse() asks for become Strings
+                mapped = text.forEachMappedRecord(rec -> {
+                    rec.parse(fields);
+                    UserEntry entry = parse(fields);
+                    if (entry != null) put(entry);
+                });
+            }
+            if (!mapped) {
+                storage.forEachRecord(line -> {
+                    UserEntry entry = parseLine(line);
+                    if (entry != null) put(entry);
+                });
+            }
+        } catch (IOException ex) {
+            // Not marked loaded/seen: the next call reads the storage again
+            // instead of serving a partial directory until the file changes
+            logger.log(java.util.logging.Level.SEVERE, "Could not read user storage", ex);
+            return;
+        }
+
+        loaded = true;
+        markFileSeen();
+    }
+
+    private void markFileSeen() {
+        UserStorageEngine storage = AdminModel.getStorageEngine();
+        seenLength = storage.sizeOnDisk();
+        seenModified = storage.lastModified();
+    }
+
+    private void put(UserEntry entry) {
+        String key = entry.getUsername() == null ? "" : entry.getUsername().trim();
+        if (key.isEmpty()) return;
+
+        UserEntry old = byUsername.put(key, entry);
+        if (old == null) {
+            variants.computeIfAbsent(key.toLowerCase(), k -> new ArrayList<>(1)).add(key);
+        } else {
+            if (old.isEmployee()) employeeCount--;
+            if (old.getEmail() != null) byEmail.remove(old.getEmail().trim().toLowerCase(), old);
+        }
+        if (entry.isEmployee()) {
+            employeeCount++;
+            searchIndex.add(entry.getEmployee());
+        } else if (old != null && old.isEmployee()) {
+            searchIndex.remove(key);
+        }
+        if (entry.getEmail() != null && !entry.getEmail().isBlank()) {
+            byEmail.put(entry.getEmail().trim().toLowerCase(), entry);
+        }
+    }
+
+    // Reused for every record; only touched while holding the directory lock
+    private final JsonLineParser.Fields fields = AdminModel.userFields(
+            "role", "name", "fullName", "username", "email", "phone",
+            "department", "employeeType", "address", "password");
+
+    private UserEntry parseLine(String line) {
+        if (line == null || line.isBlank()) return null;
+        JsonLineParser.parse(line, fields);
+        return parse(fields);
+    }
+
+    private static UserEntry parse(JsonLineParser.Fields f) {
+        String role = f.get("role");
+        String username = nz(f.get("username"));
+        String email = nz(f.get("email"));
+        String password = nz(f.get("password"));
+
+        if ("admin".equals(role)) {
+            String name = nz(f.get("name"));
+            Admin admin = new Admin(name, username, email, password, "admin");
+            return new UserEntry("admin", username, email, password, admin, null);
+        }
+        if ("employee".equals(role)) {
+            String fullName = f.get("fullName");
+            if (fullName == null || fullName.isBlank()) {
+                // fallback for older records (if any)
+                fullName = f.get("name");
+            }
+            Employee emp = new Employee(
+                    nz(fullName),
+                    username,
+                    email,
+                    nz(f.get("phone")),
+                    nz(f.get("department")),
+                    nz(f.get("address")),
+                    nz(f.get("employeeType")),
+                    password,
+                    "employee"
+            );
+            return new UserEntry("employee", username, email, password, null, emp);
+        }
+        return new UserEntry(role == null ? "unknown" : role, username, email, password, null, null);
+    }
+
+    private static String nz(String s) {
+        return s == null ? "" : s;
+    }
+}
@@ -0,0 +1,82 @@
+package model;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Where AdminModel keeps its user records.
+ *
+ * Every record is one JSON object (the same one-line format used in users.txt)
+ * stored under its username. Later records for the same username (exact case:
+ * "Bob" and "bob" are two users) supersede earlier ones.
+ */
+public interface UserStorageEngine extends AutoCloseable {
+
+    /**
+     * Append one record for the given username.
+     */
+    void append(String username, String jsonLine) throws IOException;
+
+    /**
+     * Append without waiting; the future completes once the record is stored
+     * (engines that batch writes override this).
+     */
+    default CompletableFuture<Void> appendAsync(String username, String jsonLine) {
+        try {
+            append(username, jsonLine);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Append many records as one batch (usernames.get(i) owns jsonLines.get(i)).
+     */
+    default CompletableFuture<Void> appendAllAsync(List<String> usernames, List<String> jsonLines) {
+        try {
+            for (int i = 0; i < jsonLines.size(); i++) {
+                append(usernames.get(i), jsonLines.get(i));
+            }
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Latest record for a username (case-insensitive), or null if none.
+     */
+    String read(String username) throws IOException;
+
+    /**
+     * Visit stored records in write order.
+     */
+    void forEachRecord(Consumer<String> visitor) throws IOException;
+
+    /**
+     * Rewrite the storage keeping only the latest record per username, so
+     * superseded records (e.g. a plain-text password replaced by its hash)
+     * no longer exist on disk.
+     */
+    void compact() throws IOException;
+
+    /**
+     * Size of the backing file(s); used by UserDirectory to notice outside changes.
+     */
+    long sizeOnDisk();
+
+    /**
+     * Last modification time of the backing file(s); used together with sizeOnDisk().
+     */
+    long lastModified();
+
+    /**
+     * Make every acknowledged append durable and release the file(s) and
+     * background threads. The engine cannot be used afterwards.
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,82 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Hours worked by one employee over one period (day, week or month).
+ * Only closed records (punched in and out) count towards hours; records still
+ * open are reported in getOpenDays(), and records closed by the auto punch-out
+ * sweep (not by the employee) in getAutoClosedDays().
+ */
+public class WorkHours {
+
+    private final String username;
+    private final LocalDate periodStart;
+    private final LocalDate periodEnd;
+    private final long workedSeconds;
+    private final long overtimeSeconds;
+    private final int daysWorked;
+    private final int lateArrivals;
+    private final int openDays;
+    private final int autoClosedDays;
+
+    public WorkHours(String username, LocalDate periodStart, LocalDate periodEnd,
+                     long workedSeconds, long overtimeSeconds,
+                     int daysWorked, int lateArrivals, int openDays, int autoClosedDays) {
+        this.username = username;
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+        this.workedSeconds = workedSeconds;
+        this.overtimeSeconds = overtimeSeconds;
+        this.daysWorked = daysWorked;
+        this.lateArrivals = lateArrivals;
+        this.openDays = openDays;
+        this.autoClosedDays = autoClosedDays;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+
+    public long getWorkedSeconds() {
+        return workedSeconds;
+    }
+
+    public double getWorkedHours() {
+        return workedSeconds / 3600.0;
+    }
+
+    // Time beyond the standard day, summed day by day
+    public long getOvertimeSeconds() {
+        return overtimeSeconds;
+    }
+
+    public double getOvertimeHours() {
+        return overtimeSeconds / 3600.0;
+    }
+
+    public int getDaysWorked() {
+        return daysWorked;
+    }
+
+    public int getLateArrivals() {
+        return lateArrivals;
+    }
+
+    public int getOpenDays() {
+        return openDays;
+    }
+
+    // Closed by the system at the cutoff; their hours are not counted
+    public int getAutoClosedDays() {
+        return autoClosedDays;
+    }
+}
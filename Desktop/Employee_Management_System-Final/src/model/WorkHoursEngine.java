@@ -0,0 +1,307 @@
+package model;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Worked hours, overtime and late arrivals per employee per day, week
+ * (Monday to Sunday) or month, computed from AttendanceStore's columns.
+ *
+ * A report is one fork/join pass over the store: each task walks the requested
+ * date range of the day index of a range of stripes (every employee lives in
+ * exactly one stripe, so partial results never overlap and merge with putAll),
+ * so its cost follows the rows in the range, not the whole history. Results for
+ * closed periods (ended before today) are cached; a punch dated inside a cached
+ * period evicts it, so a year-long payroll export only rescans the periods that
+ * can still change. The cache holds at most ems.hours.cacheRows WorkHours rows
+ * (default 200000); past that the least recently used periods are dropped.
+ * Records closed by the auto punch-out sweep are counted apart and add no hours.
+ */
+public final class WorkHoursEngine implements AttendanceStore.Listener {
+
+    public enum Period {
+        DAY,
+        WEEK,
+        MONTH;
+
+        public LocalDate startOf(LocalDate d) {
+            switch (this) {
+                case WEEK:  return d.minusDays(d.getDayOfWeek().getValue() - 1);
+                case MONTH: return d.withDayOfMonth(1);
+                default:    return d;
+            }
+        }
+
+        public LocalDate endOf(LocalDate d) {
+            switch (this) {
+                case WEEK:  return startOf(d).plusDays(6);
+                case MONTH: return d.withDayOfMonth(d.lengthOfMonth());
+                default:    return d;
+            }
+        }
+    }
+
+    /**
+     * What counts as a full day and as a late arrival.
+     */
+    public static final class Rules {
+        final int standardDaySeconds;
+        final int lateAfterSecond;
+
+        public Rules(int standardDayMinutes, LocalTime lateAfter) {
+            this.standardDaySeconds = standardDayMinutes * 60;
+            this.lateAfterSecond = lateAfter.toSecondOfDay();
+        }
+
+        /**
+         * ems.hours.standardDayMinutes (default 480) and ems.hours.lateAfter (HH:mm, default 09:15).
+         */
+        public static Rules fromSystemProperties() {
+            LocalTime lateAfter = LocalTime.of(9, 15);
+            try {
+                lateAfter = LocalTime.parse(System.getProperty("ems.hours.lateAfter", "09:15"));
+            } catch (DateTimeParseException ex) {
+                ex.printStackTrace();
+            }
+            return new Rules(Integer.getInteger("ems.hours.standardDayMinutes", 480), lateAfter);
+        }
+    }
+
+    // Stripes per fork/join leaf
+    private static final int LEAF_STRIPES = 4;
+
+    private final AttendanceStore store;
+    private final Rules rules;
+    private final Clock clock;
+
+    // Upper bound on WorkHours rows held by closedCache, summed over its entries
+    private static final int CACHE_ROWS = Integer.getInteger("ems.hours.cacheRows", 200_000);
+
+    // (period, start) -> result, closed periods only; access order for LRU eviction (guarded by itself)
+    private final LinkedHashMap<String, List<WorkHours>> closedCache = new LinkedHashMap<>(64, 0.75f, true);
+    private int cachedRows = 0;
+    private final AtomicLong closedChanges = new AtomicLong();
+
+    public WorkHoursEngine(AttendanceStore store, Rules rules) {
+        this(store, rules, Clock.systemDefaultZone());
+    }
+
+    public WorkHoursEngine(AttendanceStore store, Rules rules, Clock clock) {
+        this.store = store;
+        this.rules = rules;
+        this.clock = clock;
+    }
+
+    /**
+     * Every employee's totals for the period containing 'day', by username.
+     */
+    public List<WorkHours> compute(Period period, LocalDate day) {
+        return report(period, day, day).values().iterator().next();
+    }
+
+    /**
+     * Totals for every period from the one containing 'from' to the one
+     * containing 'to', in date order (a period with no attendance maps to an
+     * empty list).
+     */
+    public Map<LocalDate, List<WorkHours>> report(Period period, LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now(clock);
+        Map<LocalDate, List<WorkHours>> result = new TreeMap<>();
+        Map<LocalDate, List<WorkHours>> computed = new HashMap<>();
+
+        // Periods not in the cache are computed in one scan over [scanFrom, scanTo]
+        LocalDate scanFrom = null;
+        LocalDate scanTo = null;
+        for (LocalDate p = period.startOf(from); !p.isAfter(to); p = period.endOf(p).plusDays(1)) {
+            List<WorkHours> cached = cached(key(period, p));
+            if (cached != null) {
+                result.put(p, cached);
+                continue;
+            }
+            computed.put(p, new ArrayList<>());
+            if (scanFrom == null) scanFrom = p;
+            scanTo = period.endOf(p);
+        }
+        if (scanFrom == null) return result;
+
+        long changesBefore = closedChanges.get();
+        Map<Long, Acc> totals = ForkJoinPool.commonPool().invoke(
+                new ScanTask(period, (int) scanFrom.toEpochDay(), (int) scanTo.toEpochDay(), 0, store.stripeCount()));
+
+        AttendanceUserIds ids = store.getUserIds();
+        for (Map.Entry<Long, Acc> e : totals.entrySet()) {
+            int user = (int) (e.getKey() >>> 32);
+            LocalDate start = LocalDate.ofEpochDay((int) (long) e.getKey());
+            List<WorkHours> list = computed.get(start);
+            if (list == null) continue;   // inside the scan range but served from the cache
+
+            Acc a = e.getValue();
+            list.add(new WorkHours(ids.nameOf(user), start, period.endOf(start),
+                    a.worked, a.overtime, a.days, a.late, a.open, a.autoClosed));
+        }
+
+        boolean unchanged = closedChanges.get() == changesBefore;
+        for (Map.Entry<LocalDate, List<WorkHours>> e : computed.entrySet()) {
+            List<WorkHours> list = e.getValue();
+            list.sort(Comparator.comparing(WorkHours::getUsername));
+            list = Collections.unmodifiableList(list);
+            result.put(e.getKey(), list);
+
+            // Cache closed periods, unless a punch landed in the past while we scanned.
+            // changed() bumps the counter before evicting, so re-checking it after
+            // the insert catches a punch that slipped in between.
+            if (unchanged && period.endOf(e.getKey()).isBefore(today)) {
+                String key = key(period, e.getKey());
+                if (cache(key, list) && closedChanges.get() != changesBefore) {
+                    uncache(key);
+                    unchanged = false;
+                }
+            }
+        }
+        return result;
+    }
+
+    // --------------------------------------------------
+    // Cache invalidation (AttendanceStore.Listener)
+    // --------------------------------------------------
+
+    @Override
+    public void punchedIn(AttendanceRecord r) {
+        changed(r.getDate());
+    }
+
+    @Override
+    public void punchedOut(AttendanceRecord r) {
+        changed(r.getDate());
+    }
+
+    private void changed(LocalDate date) {
+        if (!date.isBefore(LocalDate.now(clock))) return;   // today's periods are never cached
+
+        closedChanges.incrementAndGet();
+        for (Period p : Period.values()) {
+            uncache(key(p, p.startOf(date)));
+        }
+    }
+
+    // --------------------------------------------------
+    // Closed-period cache (LRU, bounded by rows)
+    // --------------------------------------------------
+
+    private List<WorkHours> cached(String key) {
+        synchronized (closedCache) {
+            return closedCache.get(key);
+        }
+    }
+
+    // False if the key was already cached (a concurrent report got there first)
+    private boolean cache(String key, List<WorkHours> list) {
+        synchronized (closedCache) {
+            if (closedCache.containsKey(key) || list.size() > CACHE_ROWS) return false;
+            closedCache.put(key, list);
+            cachedRows += list.size();
+
+            Iterator<List<WorkHours>> eldest = closedCache.values().iterator();
+            while (cachedRows > CACHE_ROWS) {
+                cachedRows -= eldest.next().size();
+                eldest.remove();
+            }
+            return true;
+        }
+    }
+
+    private void uncache(String key) {
+        synchronized (closedCache) {
+            List<WorkHours> old = closedCache.remove(key);
+            if (old != null) cachedRows -= old.size();
+        }
+    }
+
+    private static String key(Period period, LocalDate start) {
+        return period.name() + ':' + start;
+    }
+
+    // --------------------------------------------------
+    // Parallel scan
+    // --------------------------------------------------
+
+    // Running totals for one (employee, period)
+    private static final class Acc {
+        long worked;
+        long overtime;
+        int days;
+        int late;
+        int open;
+        int autoClosed;
+    }
+
+    private final class ScanTask extends RecursiveTask<Map<Long, Acc>> {
+        private final Period period;
+        private final int fromDay;
+        private final int toDay;
+        private final int lo;
+        private final int hi;
+
+        ScanTask(Period period, int fromDay, int toDay, int lo, int hi) {
+            this.period = period;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Map<Long, Acc> compute() {
+            if (hi - lo > LEAF_STRIPES) {
+                int mid = (lo + hi) >>> 1;
+                ScanTask left = new ScanTask(period, fromDay, toDay, lo, mid);
+                left.fork();
+                Map<Long, Acc> right = new ScanTask(period, fromDay, toDay, mid, hi).compute();
+                Map<Long, Acc> merged = left.join();
+                merged.putAll(right);   // different stripes never share an employee
+                return merged;
+            }
+
+            Map<Long, Acc> totals = new HashMap<>();
+            int[] memo = { Integer.MIN_VALUE, 0 };   // last day -> period start (rows come in date order)
+            for (int stripe = lo; stripe < hi; stripe++) {
+                store.scanDays(stripe, fromDay, toDay, (user, day, in, out, flags) -> {
+                    if (day != memo[0]) {
+                        memo[0] = day;
+                        memo[1] = (int) period.startOf(LocalDate.ofEpochDay(day)).toEpochDay();
+                    }
+                    Acc a = totals.computeIfAbsent(((long) user << 32) | (memo[1] & 0xFFFFFFFFL), k -> new Acc());
+
+                    if (in > rules.lateAfterSecond) a.late++;
+                    if (out == AttendanceStore.OPEN) {
+                        a.open++;
+                        return;
+                    }
+                    if ((flags & AttendanceStore.FLAG_AUTO_CLOSED) != 0) {
+                        a.autoClosed++;   // the punch-out is the cutoff, not real time
+                        return;
+                    }
+                    int worked = Math.max(0, out - in);
+                    a.worked += worked;
+                    a.overtime += Math.max(0, worked - rules.standardDaySeconds);
+                    a.days++;
+                });
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package view;
+
+import model.AttendanceRecord;
+
+/**
+ * Attendance table: one row per punch record.
+ */
+class AttendanceTableModel extends ListTableModel<AttendanceRecord> {
+
+    AttendanceTableModel() {
+        super("Name", "Date", "Punch In Time", "Punch Out Time");
+    }
+
+    @Override
+    protected String format(AttendanceRecord r, int column) {
+        switch (column) {
+            case 0: return r.getUsername();
+            case 1: return text(r.getDate());
+            case 2: return text(r.getPunchIn());
+            case 3: return r.isFlaggedForReview()
+                    ? text(r.getPunchOut()) + " (auto)"   // closed by the auto punch-out
+                    : text(r.getPunchOut());
+            default: return "";
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package view;
+
+import model.Employee;
+
+/**
+ * Employee directory table (admin homepage).
+ */
+class EmployeeTableModel extends ListTableModel<Employee> {
+
+    EmployeeTableModel() {
+        super("Full Name", "Username", "Email", "Phone", "Department", "Employee Type", "Address");
+    }
+
+    @Override
+    protected String format(Employee e, int column) {
+        switch (column) {
+            case 0: return e.getFullName();
+            case 1: return e.getUsername();
+            case 2: return e.getEmail();
+            case 3: return e.getPhone();
+            case 4: return e.getDepartment();
+            case 5: return e.getEmployeeType();
+            case 6: return e.getAddress();
+            default: return "";
+        }
+    }
+}
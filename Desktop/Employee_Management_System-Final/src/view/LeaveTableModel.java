@@ -0,0 +1,27 @@
+package view;
+
+import model.LeaveRequest;
+
+/**
+ * Leave applications table (FIFO order, all statuses).
+ */
+class LeaveTableModel extends ListTableModel<LeaveRequest> {
+
+    LeaveTableModel() {
+        super("Name", "From Date", "To Date", "Leave Type", "Leave Reason", "Remarks", "Status");
+    }
+
+    @Override
+    protected String format(LeaveRequest r, int column) {
+        switch (column) {
+            case 0: return r.getUsername();
+            case 1: return text(r.getFromDate());
+            case 2: return text(r.getToDate());
+            case 3: return r.getLeaveType();
+            case 4: return r.getReason();
+            case 5: return r.getRemarks();
+            case 6: return r.getStatus();
+            default: return "";
+        }
+    }
+}
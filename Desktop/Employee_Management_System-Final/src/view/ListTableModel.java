@@ -0,0 +1,78 @@
+package view;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Read-only table model over a list of records.
+ *
+ * The list is wrapped, not copied into rows of Strings: a cell is formatted
+ * only when the table asks for it (visible rows), and setRows() fires a single
+ * fireTableDataChanged instead of one event per row.
+ */
+abstract class ListTableModel<T> extends AbstractTableModel {
+
+    private final String[] columns;
+    private List<T> rows = Collections.emptyList();
+
+    protected ListTableModel(String... columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Show these records. The list is used as-is (a LinkedList is copied once,
+     * by reference, so row lookups stay O(1)); don't modify it afterwards.
+     */
+    public void setRows(List<T> rows) {
+        if (rows == null) {
+            this.rows = Collections.emptyList();
+        } else if (rows instanceof RandomAccess) {
+            this.rows = rows;
+        } else {
+            this.rows = new ArrayList<>(rows);
+        }
+        fireTableDataChanged();
+    }
+
+    public T getRow(int row) {
+        return rows.get(row);
+    }
+
+    // Text for one cell of a (non-null) record
+    protected abstract String format(T record, int column);
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        T record = rows.get(row);
+        if (record == null) return "";
+        String s = format(record, column);
+        return s == null ? "" : s;
+    }
+
+    static String text(Object o) {
+        return o == null ? "" : o.toString();
+    }
+}
@@ -0,0 +1,158 @@
+package view;
+
+import controller.AttendanceController;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.SwingWorker;
+import model.WorkHours;
+import model.WorkHoursEngine;
+
+/**
+ * Work hours report (attendance tab): worked hours, overtime, late arrivals
+ * per employee for each day, week or month in a date range, from
+ * AttendanceController's WorkHoursEngine. The same rows can be exported as CSV.
+ */
+class WorkHoursDialog extends JDialog {
+
+    private static final java.util.logging.Logger logger = java.util.logging.Logger.getLogger(WorkHoursDialog.class.getName());
+
+    private final JComboBox<WorkHoursEngine.Period> period = new JComboBox<>(WorkHoursEngine.Period.values());
+    private final JTextField from = new JTextField(10);
+    private final JTextField to = new JTextField(10);
+    private final JButton show = new JButton("Show");
+    private final JButton export = new JButton("Export CSV...");
+    private final JLabel status = new JLabel(" ");
+    private final WorkHoursTableModel model = new WorkHoursTableModel();
+
+    WorkHoursDialog(JFrame owner) {
+        super(owner, "Work Hours", true);
+
+        // Default: this month, day by day
+        LocalDate today = LocalDate.now();
+        period.setSelectedItem(WorkHoursEngine.Period.DAY);
+        from.setText(today.withDayOfMonth(1).toString());
+        to.setText(today.toString());
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(new JLabel("Period"));
+        controls.add(period);
+        controls.add(new JLabel("From (yyyy-MM-dd)"));
+        controls.add(from);
+        controls.add(new JLabel("To"));
+        controls.add(to);
+        controls.add(show);
+        controls.add(export);
+
+        getContentPane().add(controls, BorderLayout.NORTH);
+        getContentPane().add(new JScrollPane(new JTable(model)), BorderLayout.CENTER);
+        getContentPane().add(status, BorderLayout.SOUTH);
+
+        show.addActionListener(e -> refresh());
+        export.addActionListener(e -> exportCsv());
+
+        setSize(900, 500);
+        setLocationRelativeTo(owner);
+        refresh();
+    }
+
+    private void refresh() {
+        WorkHoursEngine.Period p = (WorkHoursEngine.Period) period.getSelectedItem();
+        LocalDate[] range = range();
+        if (range == null) return;
+
+        // A long range rescans history (closed periods come from the engine's cache): off the EDT
+        setBusy(true);
+        new SwingWorker<List<WorkHours>, Void>() {
+            @Override
+            protected List<WorkHours> doInBackground() {
+                return AttendanceController.getWorkHoursRows(p, range[0], range[1]);
+            }
+
+            @Override
+            protected void done() {
+                setBusy(false);
+                try {
+                    List<WorkHours> rows = get();
+                    model.setRows(rows);
+                    status.setText(rows.size() + " rows");
+                } catch (Exception ex) {
+                    logger.log(java.util.logging.Level.SEVERE, "Work hours report failed", ex);
+                    status.setText("Could not compute the report.");
+                }
+            }
+        }.execute();
+    }
+
+    private void exportCsv() {
+        WorkHoursEngine.Period p = (WorkHoursEngine.Period) period.getSelectedItem();
+        LocalDate[] range = range();
+        if (range == null) return;
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("work-hours-" + range[0] + "-to-" + range[1] + ".csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+
+        setBusy(true);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                AttendanceController.exportWorkHoursCsv(p, range[0], range[1], file);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                setBusy(false);
+                try {
+                    get();
+                    status.setText("Exported to " + file.getName());
+                } catch (Exception ex) {
+                    logger.log(java.util.logging.Level.SEVERE, "Work hours export failed", ex);
+                    JOptionPane.showMessageDialog(WorkHoursDialog.this,
+                            "Could not write " + file.getName() + ".",
+                            "Export",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    // {from, to}, or null (with a message) if the dates don't parse or are reversed
+    private LocalDate[] range() {
+        try {
+            LocalDate f = LocalDate.parse(from.getText().trim());
+            LocalDate t = LocalDate.parse(to.getText().trim());
+            if (t.isBefore(f)) {
+                status.setText("'To' is before 'From'.");
+                return null;
+            }
+            return new LocalDate[] { f, t };
+        } catch (DateTimeParseException ex) {
+            status.setText("Dates must look like 2025-03-14.");
+            return null;
+        }
+    }
+
+    private void setBusy(boolean busy) {
+        show.setEnabled(!busy);
+        export.setEnabled(!busy);
+        if (busy) status.setText("Working...");
+    }
+}
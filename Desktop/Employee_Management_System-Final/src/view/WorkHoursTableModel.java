@@ -0,0 +1,30 @@
+package view;
+
+import java.util.Locale;
+import model.WorkHours;
+
+/**
+ * Work hours table: one row per employee per period.
+ */
+class WorkHoursTableModel extends ListTableModel<WorkHours> {
+
+    WorkHoursTableModel() {
+        super("Name", "From", "To", "Worked (h)", "Overtime (h)", "Days", "Late", "Open", "Auto-closed");
+    }
+
+    @Override
+    protected String format(WorkHours h, int column) {
+        switch (column) {
+            case 0: return h.getUsername();
+            case 1: return text(h.getPeriodStart());
+            case 2: return text(h.getPeriodEnd());
+            case 3: return String.format(Locale.ROOT, "%.2f", h.getWorkedHours());
+            case 4: return String.format(Locale.ROOT, "%.2f", h.getOvertimeHours());
+            case 5: return String.valueOf(h.getDaysWorked());
+            case 6: return String.valueOf(h.getLateArrivals());
+            case 7: return String.valueOf(h.getOpenDays());
+            case 8: return String.valueOf(h.getAutoClosedDays());
+            default: return "";
+        }
+    }
+}
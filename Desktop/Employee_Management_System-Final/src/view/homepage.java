@@ -3,7 +3,6 @@
  * Click nbfs://nbhost/SystemFileSystem/Templates/GUIForms/JFrame.java to edit this template
  */
 package view;
-import javax.swing.table.DefaultTableModel;
 import java.util.List;
 import java.util.ArrayList;
 import model.AdminModel;
@@ -35,8 +34,7 @@ public class homepage extends javax.swing.JFrame {
     private List<AttendanceRecord> attendanceFullCache = new ArrayList<>();
 
     // ==============================
-    // Attendance Search (Linear Search)
-    // NOTE: Attendance list is NOT guaranteed to be sorted, so linear search is correct here.
+    // Attendance Search: AttendanceController.searchAttendance (indexed, full history)
     // ==============================
 
 
@@ -46,46 +44,17 @@ public class homepage extends javax.swing.JFrame {
      */
    
 
-    private void renderEmployeesToTable(List<Employee> emps) {
-        DefaultTableModel tm = (DefaultTableModel) jTable2.getModel();
-        tm.setRowCount(0);
-
-        if (emps == null) return;
-
-        for (Employee e : emps) {
-            if (e == null) continue;
-
-            tm.addRow(new Object[] {
-                    safe(e.getFullName()),
-                    safe(e.getUsername()),
-                    safe(e.getEmail()),
-                    safe(e.getPhone()),
-                    safe(e.getDepartment()),
-                    safe(e.getEmployeeType()),
-                    safe(e.getAddress())
-            });
-        }
-    }
-    private void renderAttendanceToTable(List<AttendanceRecord> records) {
-    DefaultTableModel tm = (DefaultTableModel) jTable1.getModel();
-    tm.setRowCount(0);
-
-    if (records == null) return;
-
-    for (AttendanceRecord r : records) {
-        if (r == null) continue;
+    // Table models (installed after initComponents; they wrap the lists, no row copies)
+    private final EmployeeTableModel employeeTableModel = new EmployeeTableModel();
+    private final AttendanceTableModel attendanceTableModel = new AttendanceTableModel();
+    private final LeaveTableModel leaveTableModel = new LeaveTableModel();
 
-        tm.addRow(new Object[] {
-            r.getUsername() == null ? "" : r.getUsername(),
-            r.getDate() == null ? "" : r.getDate().toString(),
-            r.getPunchIn() == null ? "" : r.getPunchIn().toString(),
-            r.getPunchOut() == null ? "" : r.getPunchOut().toString()
-        });
+    private void renderEmployeesToTable(List<Employee> emps) {
+        employeeTableModel.setRows(emps);
     }
-}
 
-    private String safe(String s) {
-        return (s == null) ? "" : s;
+    private void renderAttendanceToTable(List<AttendanceRecord> records) {
+        attendanceTableModel.setRows(records);
     }
 
     // ==============================
@@ -96,6 +65,71 @@ public class homepage extends javax.swing.JFrame {
     // Shared AdminModel instance for this frame (NetBeans GUI safe)
     private final AdminModel adminModel = new AdminModel();
     private final EmployeeSortController employeeSortController = new EmployeeSortController();
+
+    // ==============================
+    // Search-as-you-type (directory tab)
+    // Keystrokes restart a short timer; when typing pauses the query runs on a
+    // background thread and only the newest query's result reaches jTable2.
+    // ==============================
+    private static final int SEARCH_DEBOUNCE_MS = 250;
+
+    private final java.util.concurrent.ExecutorService searchExecutor =
+            java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "employee-search");
+                t.setDaemon(true);
+                return t;
+            });
+    private final java.util.concurrent.atomic.AtomicLong searchSeq = new java.util.concurrent.atomic.AtomicLong();
+    private java.util.concurrent.Future<?> searchInFlight;   // EDT only
+    private javax.swing.Timer searchDebounce;
+
+    private void installSearchAsYouType() {
+        searchDebounce = new javax.swing.Timer(SEARCH_DEBOUNCE_MS, e -> runEmployeeSearch(jTextField1.getText()));
+        searchDebounce.setRepeats(false);
+
+        jTextField1.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                searchDebounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                searchDebounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                // attribute changes only
+            }
+        });
+    }
+
+    // Called on the EDT. Supersedes whatever query is still queued or running.
+    private void runEmployeeSearch(String key) {
+        if (searchDebounce != null) searchDebounce.stop();
+        // Never interrupt: the worker may be reloading the directory from disk, and
+        // an interrupt closes its FileChannel. The seq check drops stale results.
+        if (searchInFlight != null) searchInFlight.cancel(false);
+        long seq = searchSeq.incrementAndGet();
+
+        if (key == null || key.isBlank()) {
+            searchInFlight = null;
+            renderEmployeesToTable(employeeCache);
+            return;
+        }
+
+        searchInFlight = searchExecutor.submit(() -> {
+            if (seq != searchSeq.get()) return;   // a newer keystroke already arrived
+            List<Employee> result = employeeSortController.searchEmployees(key);
+            if (seq != searchSeq.get()) return;
+
+            javax.swing.SwingUtilities.invokeLater(() -> {
+                if (seq == searchSeq.get()) renderEmployeesToTable(result);
+            });
+        });
+    }
+
 private void updateTotalEmployeesLabel() {
     try {
         int total = AdminModel.getTotalEmployeeCount();
@@ -168,24 +202,7 @@ public void refreshAttendanceTable() {
   
 
     public void refreshLeaveApplicationsTable() {
-        DefaultTableModel tm = (DefaultTableModel) leave_application_table.getModel();
-        tm.setRowCount(0); // clear old rows
-
-        List<LeaveRequest> requests = LeaveController.getAllLeavesFIFO();
-
-        for (LeaveRequest r : requests) {
-            if (r == null) continue;
-
-            tm.addRow(new Object[] {
-                r.getUsername(),
-                r.getFromDate() == null ? "" : r.getFromDate().toString(),
-                r.getToDate() == null ? "" : r.getToDate().toString(),
-                r.getLeaveType() == null ? "" : r.getLeaveType(),
-                r.getReason() == null ? "" : r.getReason(),
-                r.getRemarks() == null ? "" : r.getRemarks(),
-                r.getStatus() == null ? "" : r.getStatus()
-            });
-        }
+        leaveTableModel.setRows(LeaveController.getAllLeavesFIFO());
     }
 
     // Load the next pending leave request (oldest pending) into the UI section above the table
@@ -218,6 +235,36 @@ public void refreshAttendanceTable() {
         jButton10.setEnabled(true);
         jButton11.setEnabled(true);
     }
+    // ==============================
+    // Bulk import (Add Employee tab)
+    // The generated layout sizes Add_Employee_btn; it is swapped for a panel
+    // holding that button and the import button, so the form file is untouched.
+    // ==============================
+    private final javax.swing.JButton importEmployeesBtn = new javax.swing.JButton("Import File...");
+
+    private void installImportButton() {
+        javax.swing.JPanel buttons = new javax.swing.JPanel(new java.awt.GridLayout(1, 2, 8, 0));
+        buttons.setOpaque(false);
+        ((javax.swing.GroupLayout) card56.getLayout()).replace(Add_Employee_btn, buttons);
+        buttons.add(Add_Employee_btn);
+        buttons.add(importEmployeesBtn);
+    }
+
+    // ==============================
+    // Work hours report (attendance tab), next to the generated Clear button
+    // ==============================
+    private void installWorkHoursButton() {
+        javax.swing.JButton workHoursBtn = new javax.swing.JButton("Work Hours...");
+        workHoursBtn.addActionListener(e -> new WorkHoursDialog(this).setVisible(true));
+
+        javax.swing.JPanel buttons = new javax.swing.JPanel(new java.awt.FlowLayout(java.awt.FlowLayout.LEFT, 0, 0));
+        buttons.setOpaque(false);
+        ((javax.swing.GroupLayout) jPanel15.getLayout()).replace(jButton15, buttons);
+        buttons.add(jButton15);
+        buttons.add(javax.swing.Box.createHorizontalStrut(12));
+        buttons.add(workHoursBtn);
+    }
+
     private static final java.util.logging.Logger logger = java.util.logging.Logger.getLogger(homepage.class.getName());
 
     /**
@@ -226,6 +273,13 @@ public void refreshAttendanceTable() {
     public homepage() {
        
         initComponents();
+        // NetBeans-safe: wiring table models after initComponents
+        jTable2.setModel(employeeTableModel);
+        jTable1.setModel(attendanceTableModel);
+        leave_application_table.setModel(leaveTableModel);
+        installSearchAsYouType();
+        installImportButton();
+        installWorkHoursButton();
     
             // Scale employee profile images to fit their labels (prevents cropping)
         setScaledIcon(jLabel5, "/images/sridhar.png");
@@ -1623,7 +1677,7 @@ public void refreshAttendanceTable() {
     jTextField1.setText("");
 
 
-    renderEmployeesToTable(employeeCache);
+    runEmployeeSearch("");
     }//GEN-LAST:event_jButton9ActionPerformed
 
     private void jComboBox1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jComboBox1ActionPerformed
@@ -1631,23 +1685,16 @@ public void refreshAttendanceTable() {
     }//GEN-LAST:event_jComboBox1ActionPerformed
 
     private void jButton12ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton12ActionPerformed
-  String key = jTextField1.getText();
-
-// ALWAYS sort first
-List<Employee> sorted =
-    employeeSortController.getEmployeesSorted("Sort by Name (A–Z)");
-
-List<Employee> result =
-    employeeSortController.binarySearchByName(sorted, key);
-
-renderEmployeesToTable(result);
+  // Same path as typing, just without waiting for the debounce
+  runEmployeeSearch(jTextField1.getText());
     }//GEN-LAST:event_jButton12ActionPerformed
 
     private void jButton14ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton14ActionPerformed
       
 String key = attendanceSearchField.getText();
+// Part of a username or of a date (2025-03-14, 2025-03, 03-14), over the full history
 List<AttendanceRecord> result =
-    AttendanceController.linearSearchAttendance(attendanceCache, key);
+    AttendanceController.searchAttendance(key);
 
 renderAttendanceToTable(result);
     }//GEN-LAST:event_jButton14ActionPerformed
@@ -1860,6 +1907,28 @@ public void clearEmpError() {
     EmpErrorLabel.setText("");
     EmpErrorLabel.setVisible(false);
 }
+public void addEmployeeImportListener(java.awt.event.ActionListener l) {
+    importEmployeesBtn.addActionListener(l);
+}
+
+// CSV or JSON-lines file to import, or null if the admin cancelled
+public java.io.File chooseImportFile() {
+    javax.swing.JFileChooser chooser = new javax.swing.JFileChooser();
+    chooser.setDialogTitle("Import Employees");
+    chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
+            "CSV or JSON lines (*.csv, *.jsonl, *.json, *.txt)", "csv", "jsonl", "json", "txt"));
+    return chooser.showOpenDialog(this) == javax.swing.JFileChooser.APPROVE_OPTION
+            ? chooser.getSelectedFile() : null;
+}
+
+public void setImportRunning(boolean running) {
+    importEmployeesBtn.setEnabled(!running);
+    importEmployeesBtn.setText(running ? "Importing..." : "Import File...");
+}
+
+public void refreshTotalEmployees() {
+    updateTotalEmployeesLabel();
+}
 public String getEmpEmployeeType() {
     return Employee_Type.getSelectedItem().toString().trim();
 }
@@ -0,0 +1,44 @@
+package bench;
+
+/**
+ * Minimal timing harness for the benchmarks in this package (no JMH on the
+ * project classpath): a few warm-up rounds so the JIT settles, then the best
+ * and median of the measured rounds.
+ *
+ * Run a benchmark with its main(), e.g. after building:
+ *   java -cp build/classes:build/test/classes bench.JsonParseBench
+ */
+final class Bench {
+
+    private Bench() {
+    }
+
+    interface Body {
+        void run() throws Exception;
+    }
+
+    /**
+     * Time 'ops' operations of 'body' and print ns/op and ops/s.
+     * Returns the median ns per operation.
+     */
+    static double measure(String name, int warmups, int rounds, long ops, Body body) throws Exception {
+        for (int i = 0; i < warmups; i++) body.run();
+
+        long[] nanos = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long t = System.nanoTime();
+            body.run();
+            nanos[i] = System.nanoTime() - t;
+        }
+        java.util.Arrays.sort(nanos);
+
+        double median = (double) nanos[rounds / 2] / ops;
+        double best = (double) nanos[0] / ops;
+        System.out.printf("%-44s %12.1f ns/op (best %10.1f) %14.0f ops/s%n",
+                name, median, best, 1e9 / median);
+        return median;
+    }
+
+    // Keeps results alive so the JIT cannot drop the measured work
+    static volatile Object sink;
+}
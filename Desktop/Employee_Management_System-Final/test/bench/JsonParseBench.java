@@ -0,0 +1,124 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import model.JsonLineParser;
+import model.MappedUserFile;
+
+/**
+ * users.txt parsing: the old per-key substring reader (AdminModel.readJsonValue,
+ * kept here verbatim for comparison) against the single-pass JsonLineParser.
+ *
+ * Every employee line is read for its ten fields, as UserDirectory does.
+ * Measured twice: on lines already in memory, and as a full load of a
+ * users.txt file (old: readLine + readJsonValue; new: the memory-mapped path
+ * UserDirectory uses, which never builds a String per line).
+ *
+ * Args: [lines, default 100000]
+ */
+public final class JsonParseBench {
+
+    private static final String[] KEYS = {
+        "role", "name", "fullName", "username", "email", "phone",
+        "department", "employeeType", "address", "password"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<String> file = sampleLines(lines);
+
+        Bench.measure("readJsonValue (old, per key)", 5, 10, lines, () -> {
+            int n = 0;
+            for (String line : file) {
+                for (String key : KEYS) {
+                    String v = readJsonValue(line, key);
+                    if (v != null) n += v.length();
+                }
+            }
+            Bench.sink = n;
+        });
+
+        JsonLineParser.Fields f = new JsonLineParser.Fields(KEYS);
+        Bench.measure("JsonLineParser (single pass)", 5, 10, lines, () -> {
+            int n = 0;
+            for (String line : file) {
+                JsonLineParser.parse(line, f);
+                for (String key : KEYS) {
+                    String v = f.get(key);
+                    if (v != null) n += v.length();
+                }
+            }
+            Bench.sink = n;
+        });
+
+        File users = File.createTempFile("users", ".txt");
+        users.deleteOnExit();
+        try (PrintWriter out = new PrintWriter(users, StandardCharsets.UTF_8)) {
+            for (String line : file) out.println(line);
+        }
+
+        Bench.measure("load file: readLine + readJsonValue", 3, 7, lines, () -> {
+            int n = 0;
+            try (BufferedReader br = new BufferedReader(new FileReader(users, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    for (String key : KEYS) {
+                        String v = readJsonValue(line, key);
+                        if (v != null) n += v.length();
+                    }
+                }
+            }
+            Bench.sink = n;
+        });
+
+        Bench.measure("load file: MappedUserFile + JsonLineParser", 3, 7, lines, () -> {
+            int[] n = {0};
+            JsonLineParser.Fields mf = new JsonLineParser.Fields(KEYS);
+            MappedUserFile.forEachRecord(users, rec -> {
+                rec.parse(mf);
+                for (String key : KEYS) {
+                    String v = mf.get(key);
+                    if (v != null) n[0] += v.length();
+                }
+            });
+            Bench.sink = n[0];
+        });
+    }
+
+    static List<String> sampleLines(int count) {
+        List<String> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add("{\"role\":\"employee\","
+                    + "\"fullName\":\"Employee Number " + i + "\","
+                    + "\"username\":\"user" + i + "\","
+                    + "\"email\":\"user" + i + "@example.com\","
+                    + "\"phone\":\"98" + (10_000_000 + i) + "\","
+                    + "\"department\":\"Department " + (i % 12) + "\","
+                    + "\"employeeType\":\"" + (i % 3 == 0 ? "Part-time" : "Full-time") + "\","
+                    + "\"address\":\"Street " + (i % 500) + ", Kathmandu\","
+                    + "\"password\":\"pbkdf2$120000$c2FsdHNhbHRzYWx0$aGFzaGhhc2hoYXNoaGFzaGhhc2hoYXNoaGFzaA\"}");
+        }
+        return list;
+    }
+
+    // The parser this replaced (AdminModel, before the tokenizer)
+    private static String readJsonValue(String jsonLine, String key) {
+        if (jsonLine == null || key == null) return null;
+
+        String needle = "\"" + key + "\":\"";
+        int start = jsonLine.indexOf(needle);
+        if (start < 0) return null;
+
+        start += needle.length();
+        int end = jsonLine.indexOf('"', start);
+        if (end < 0) return null;
+
+        String raw = jsonLine.substring(start, end);
+        return raw.replace("\\\"", "\"");
+    }
+}
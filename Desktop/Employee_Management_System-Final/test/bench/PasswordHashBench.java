@@ -0,0 +1,61 @@
+package bench;
+
+import java.io.File;
+import model.Admin;
+import model.AdminModel;
+import model.PasswordHasher;
+import model.TextFileStorageEngine;
+
+/**
+ * Login throughput against the PBKDF2 work factor.
+ *
+ * For each iteration count: full verifications per second (first login, or
+ * a cache miss) on one thread, and logins per second through
+ * AdminModel.authenticateUser once the auth cache holds the user (repeat
+ * logins within the TTL).
+ *
+ * Args: [iteration counts, comma separated, default 10000,30000,60000,120000,250000]
+ */
+public final class PasswordHashBench {
+
+    public static void main(String[] args) throws Exception {
+        String list = args.length > 0 ? args[0] : "10000,30000,60000,120000,250000";
+
+        File users = File.createTempFile("users", ".txt");
+        users.deleteOnExit();
+        AdminModel.setStorageEngine(new TextFileStorageEngine(users));
+
+        // Let the JIT compile the HMAC path before the first calibration
+        String warm = PasswordHasher.hash("warm-up", 10_000);
+        for (int i = 0; i < 50; i++) PasswordHasher.verify("warm-up", warm);
+
+        System.out.printf("%-12s %16s %20s%n", "iterations", "verify/s (miss)", "login/s (cache hit)");
+        int n = 0;
+        for (String s : list.split(",")) {
+            int iterations = Integer.parseInt(s.trim());
+            String password = "Secret#" + iterations;
+            String stored = PasswordHasher.hash(password, iterations);
+
+            // Enough verifications for roughly a second at this cost
+            long t = System.nanoTime();
+            PasswordHasher.verify(password, stored);
+            int ops = (int) Math.max(3, 1_000_000_000L / Math.max(1, System.nanoTime() - t));
+            double missNs = Bench.measure("verify x" + ops + " @" + iterations, 1, 3, ops, () -> {
+                for (int i = 0; i < ops; i++) Bench.sink = PasswordHasher.verify(password, stored);
+            });
+
+            // One admin per work factor; the first login fills the cache
+            String username = "bench" + n++;
+            PasswordHasher.setIterations(iterations);
+            new AdminModel().saveAdmin(new Admin("Bench", username, username + "@example.com", password, "admin"));
+            AdminModel model = new AdminModel();
+            model.authenticateUser(username, password);
+            double hitNs = Bench.measure("login (cached) @" + iterations, 3, 5, 100_000, () -> {
+                for (int i = 0; i < 100_000; i++) Bench.sink = model.authenticateUser(username, password);
+            });
+
+            System.out.printf("%-12d %16.0f %20.0f%n", iterations, 1e9 / missNs, 1e9 / hitNs);
+        }
+        System.exit(0);   // storage writer threads are daemons, but don't wait on them
+    }
+}
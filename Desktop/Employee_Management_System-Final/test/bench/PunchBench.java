@@ -0,0 +1,85 @@
+package bench;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import model.AttendanceRecord;
+import model.AttendanceStore;
+import model.AttendanceUserIds;
+
+/**
+ * Punch throughput with 1M historical attendance records.
+ *
+ * Compares the (username, date) indexed AttendanceStore against the old
+ * approach (scan the whole record list for a double punch-in, and backwards
+ * for the punch-out), both loaded with the same history.
+ *
+ * Args: [employees, default 2740] [days of history, default 365]
+ * (2740 x 365 = 1,000,100 records)
+ */
+public final class PunchBench {
+
+    public static void main(String[] args) throws Exception {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 2740;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 365;
+
+        LocalDate first = LocalDate.of(2025, 1, 1);
+        String[] names = new String[employees];
+        for (int u = 0; u < employees; u++) names[u] = "emp" + u;
+
+        AttendanceStore store = new AttendanceStore(new AttendanceUserIds());
+        List<AttendanceRecord> list = new ArrayList<>(employees * days);
+        long t = System.nanoTime();
+        for (int d = 0; d < days; d++) {
+            LocalDate date = first.plusDays(d);
+            for (String name : names) {
+                store.punchIn(name, date, LocalTime.of(9, 0));
+                store.punchOut(name, date, LocalTime.of(17, 30));
+                AttendanceRecord r = new AttendanceRecord(name, date, LocalTime.of(9, 0));
+                r.setPunchOut(LocalTime.of(17, 30));
+                list.add(r);
+            }
+        }
+        System.out.printf("history: %,d records (loaded in %d ms)%n", store.size(), (System.nanoTime() - t) / 1_000_000);
+
+        // Each round is a new day: every employee punches in, then out
+        int[] day = {days};
+        Bench.measure("AttendanceStore punch in+out", 3, 7, employees * 2L, () -> {
+            LocalDate date = first.plusDays(day[0]++);
+            for (String name : names) store.punchIn(name, date, LocalTime.of(9, 5));
+            for (String name : names) store.punchOut(name, date, LocalTime.of(17, 35));
+        });
+
+        // Old scan: far slower, so only a slice of the employees per round
+        int sample = Math.min(employees, 200);
+        int[] oldDay = {days};
+        Bench.measure("linear scan punch in+out (old)", 1, 3, sample * 2L, () -> {
+            LocalDate date = first.plusDays(oldDay[0]++);
+            for (int u = 0; u < sample; u++) linearPunchIn(list, names[u], date, LocalTime.of(9, 5));
+            for (int u = 0; u < sample; u++) linearPunchOut(list, names[u], date, LocalTime.of(17, 35));
+        });
+    }
+
+    // AttendanceController.punchIn before the index
+    private static boolean linearPunchIn(List<AttendanceRecord> list, String username, LocalDate date, LocalTime time) {
+        for (AttendanceRecord r : list) {
+            if (r.getUsername().equals(username) && r.getDate().equals(date)) return false;
+        }
+        list.add(new AttendanceRecord(username, date, time));
+        return true;
+    }
+
+    // AttendanceController.punchOut before the index
+    private static boolean linearPunchOut(List<AttendanceRecord> list, String username, LocalDate date, LocalTime time) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            AttendanceRecord r = list.get(i);
+            if (r.getUsername().equals(username) && r.getDate().equals(date)) {
+                if (r.getPunchOut() != null) return false;
+                r.setPunchOut(time);
+                return true;
+            }
+        }
+        return false;
+    }
+}
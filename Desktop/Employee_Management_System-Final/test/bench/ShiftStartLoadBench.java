@@ -0,0 +1,88 @@
+package bench;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import model.AttendanceStore;
+import model.AttendanceUserIds;
+
+/**
+ * Shift-start load test: every employee punches in at once, spread over N
+ * threads released together, for N = 1, 2, 4, ... up to twice the core count.
+ *
+ * Runs each N against the lock-striped AttendanceStore, and again with every
+ * punch behind one global lock (what the old static synchronized
+ * AttendanceController did), so the scaling of the two can be compared.
+ *
+ * Args: [employees, default 20000] [rounds per N, default 5]
+ */
+public final class ShiftStartLoadBench {
+
+    public static void main(String[] args) throws Exception {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        String[] names = new String[employees];
+        for (int u = 0; u < employees; u++) names[u] = "emp" + u;
+
+        System.out.printf("%d employees, %d cores%n", employees, cores);
+        System.out.printf("%-8s %18s %18s%n", "threads", "striped punch/s", "global lock punch/s");
+        for (int threads = 1; threads <= Math.max(2, cores * 2); threads *= 2) {
+            double striped = run(names, threads, rounds, false);
+            double global = run(names, threads, rounds, true);
+            System.out.printf("%-8d %18.0f %18.0f%n", threads, striped, global);
+        }
+    }
+
+    // Median punches per second over 'rounds' shift starts (one warm-up first)
+    private static double run(String[] names, int threads, int rounds, boolean globalLock) throws Exception {
+        AttendanceStore store = new AttendanceStore(new AttendanceUserIds());
+        Object lock = new Object();
+        LocalDate first = LocalDate.of(2026, 1, 5);
+
+        double[] rates = new double[rounds];
+        for (int r = -1; r < rounds; r++) {
+            LocalDate date = first.plusDays(r + 1);
+            CountDownLatch ready = new CountDownLatch(threads);
+            CountDownLatch go = new CountDownLatch(1);
+            List<Thread> workers = new ArrayList<>();
+
+            for (int w = 0; w < threads; w++) {
+                int from = names.length * w / threads;
+                int to = names.length * (w + 1) / threads;
+                Thread t = new Thread(() -> {
+                    ready.countDown();
+                    try {
+                        go.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (int u = from; u < to; u++) {
+                        if (globalLock) {
+                            synchronized (lock) {
+                                store.punchIn(names[u], date, LocalTime.of(9, 0));
+                            }
+                        } else {
+                            store.punchIn(names[u], date, LocalTime.of(9, 0));
+                        }
+                    }
+                });
+                workers.add(t);
+                t.start();
+            }
+
+            ready.await();
+            long t0 = System.nanoTime();
+            go.countDown();
+            for (Thread t : workers) t.join();
+            long elapsed = System.nanoTime() - t0;
+
+            if (r >= 0) rates[r] = names.length * 1e9 / elapsed;
+        }
+        java.util.Arrays.sort(rates);
+        return rates[rounds / 2];
+    }
+}
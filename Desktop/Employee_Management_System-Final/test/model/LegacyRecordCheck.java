@@ -0,0 +1,106 @@
+package model;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Round-trip check for user records written by the old escaper, which escaped
+ * only '"' and wrote '\' as is. Such lines must still read back (and log in)
+ * exactly as the old reader saw them; lines written now must read back to
+ * the original values, backslashes, quotes and newlines included.
+ *
+ * Run: java -cp <classes>:<test classes> model.LegacyRecordCheck
+ * Exits with status 1 on the first failed check.
+ */
+public final class LegacyRecordCheck {
+
+    // As the old AdminModel wrote it: username old\admin, password \new\pa$$\
+    private static final String LEGACY_ADMIN =
+            "{\"role\":\"admin\",\"name\":\"Old \\\"Boss\",\"username\":\"old\\admin\","
+            + "\"email\":\"old@example.com\",\"password\":\"\\new\\pa$$\\\"}";
+
+    // Password pa"ss1, name Ann "A" O'Neil: the old escaper wrote each quote as \"
+    private static final String LEGACY_EMPLOYEE =
+            "{\"role\":\"employee\",\"fullName\":\"Ann \\\"A\\\" O'Neil\",\"username\":\"ann\","
+            + "\"email\":\"ann@example.com\",\"phone\":\"1\",\"department\":\"IT\",\"employeeType\":\"Full\","
+            + "\"address\":\"x\",\"password\":\"pa\\\"ss1\"}";
+
+    public static void main(String[] args) throws Exception {
+        // Parser, String and byte paths
+        JsonLineParser.Fields f = AdminModel.userFields("username", "password", "email");
+        JsonLineParser.parse(LEGACY_ADMIN, f);
+        check("legacy line detected", f.isLegacy());
+        check("legacy username", "old\\admin".equals(f.get("username")));
+        check("legacy password", "\\new\\pa$$\\".equals(f.get("password")));
+        check("legacy email", "old@example.com".equals(f.get("email")));
+
+        byte[] bytes = LEGACY_ADMIN.getBytes(StandardCharsets.UTF_8);
+        JsonLineParser.parse(bytes, 0, bytes.length, f);
+        check("legacy password (bytes)", "\\new\\pa$$\\".equals(f.get("password")));
+
+        JsonLineParser.Fields e = AdminModel.userFields("fullName", "username", "password");
+        JsonLineParser.parse(LEGACY_EMPLOYEE, e);
+        check("legacy quote in password", "pa\"ss1".equals(e.get("password")));
+        check("legacy quotes in name", "Ann \"A\" O'Neil".equals(e.get("fullName")));
+        check("legacy username after quoted name", "ann".equals(e.get("username")));
+        bytes = LEGACY_EMPLOYEE.getBytes(StandardCharsets.UTF_8);
+        JsonLineParser.parse(bytes, 0, bytes.length, e);
+        check("legacy quote in password (bytes)", "pa\"ss1".equals(e.get("password")));
+
+        String tricky = "a\\b \"q\" \\n\nline2\\";
+        String current = "{\"v\":2,\"role\":\"admin\",\"username\":\"" + JsonLineParser.escape(tricky)
+                + "\",\"password\":\"x\"}";
+        JsonLineParser.parse(current, f);
+        check("current line not legacy", !f.isLegacy());
+        check("current round trip", tricky.equals(f.get("username")));
+
+        // End to end: legacy record logs in, is migrated, and the new record reads back
+        File users = File.createTempFile("users", ".txt");
+        users.deleteOnExit();
+        try (PrintWriter w = new PrintWriter(users, StandardCharsets.UTF_8)) {
+            w.println(LEGACY_ADMIN);
+            w.println(LEGACY_EMPLOYEE);
+        }
+        AdminModel.setStorageEngine(new TextFileStorageEngine(users));
+
+        AdminModel model = new AdminModel();
+        check("legacy login", "admin".equals(model.authenticateUser("old\\admin", "\\new\\pa$$\\")));
+        check("legacy login, quote in password", "employee".equals(model.authenticateUser("ann", "pa\"ss1")));
+
+        // Password migration runs in the background and compacts the file when done
+        long deadline = System.currentTimeMillis() + 60_000;
+        List<String> lines;
+        do {
+            Thread.sleep(100);
+            lines = Files.readAllLines(users.toPath(), StandardCharsets.UTF_8);
+        } while (!migrated(lines) && System.currentTimeMillis() < deadline);
+        check("migrated to the current format", migrated(lines));
+
+        JsonLineParser.parse(lines.get(0), f);
+        check("migrated username", "old\\admin".equals(f.get("username")));
+        check("migrated password hashed", PasswordHasher.verify("\\new\\pa$$\\", f.get("password")));
+        JsonLineParser.parse(lines.get(1), e);
+        check("migrated name", "Ann \"A\" O'Neil".equals(e.get("fullName")));
+        check("migrated quoted password hashed", PasswordHasher.verify("pa\"ss1", e.get("password")));
+
+        UserDirectory.getInstance().invalidate();
+        check("login after migration", "admin".equals(new AdminModel().authenticateUser("old\\admin", "\\new\\pa$$\\")));
+        check("quoted password login after migration", "employee".equals(new AdminModel().authenticateUser("ann", "pa\"ss1")));
+
+        System.out.println("LegacyRecordCheck: all checks passed");
+        System.exit(0);
+    }
+
+    private static boolean migrated(List<String> lines) {
+        return lines.size() == 2 && lines.get(0).startsWith("{\"v\":2,") && lines.get(1).startsWith("{\"v\":2,");
+    }
+
+    private static void check(String what, boolean ok) {
+        if (ok) return;
+        System.out.println("FAILED: " + what);
+        System.exit(1);
+    }
+}